@@ -0,0 +1,28 @@
+package com.google.sps.data;
+
+import java.util.List;
+
+/**
+ * Holds a page of comments and the cursor that the next page starts at.
+ */
+public class CommentPage {
+  private final List<Comment> comments;
+  private final String cursor;
+
+  /**
+   * @param comments The comments on this page
+   * @param cursor The web-safe Datastore cursor of the next page, or null if this is the last one
+   */
+  public CommentPage(List<Comment> comments, String cursor) {
+    this.comments = comments;
+    this.cursor = cursor;
+  }
+
+  public List<Comment> getComments() {
+    return comments;
+  }
+
+  public String getCursor() {
+    return cursor;
+  }
+}
@@ -0,0 +1,32 @@
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Serves the hit rate of this instance's cache of the latest comments.
+ */
+@WebServlet("/comment-cache-stats")
+public class CommentCacheStatsServlet extends HttpServlet {
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    LatestCommentsCache cache = LatestCommentsCache.INSTANCE;
+
+    long hits = cache.getHits();
+    long misses = cache.getMisses();
+
+    Map<String, Number> stats = new LinkedHashMap<>();
+    stats.put("hits", hits);
+    stats.put("misses", misses);
+    stats.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+
+    response.setContentType("application/json");
+    response.getWriter().println(new Gson().toJson(stats));
+  }
+}
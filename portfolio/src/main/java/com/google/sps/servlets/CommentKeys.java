@@ -10,7 +10,10 @@ final class CommentKeys {
   static final String MESSAGE_PROPERTY = "message";
   static final String TIMESTAMP_MILLIS_PROPERTY = "timestampMillis";
   static final String COMMENT_LIMIT_PROPERTY = "commentLimit";
+  static final String CURSOR_PROPERTY = "cursor";
   static final String LANGUAGE_CODE_PROPERTY = "languageCode";
+  static final String COMMENT_KEY_PROPERTY = "commentKey";
+  static final String TRANSLATED_MESSAGE_PROPERTY_PREFIX = "message-";
 
   private CommentKeys() {}
 }
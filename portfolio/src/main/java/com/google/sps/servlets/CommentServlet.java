@@ -1,25 +1,27 @@
 package com.google.sps.servlets;
 
+import com.google.appengine.api.datastore.Cursor;
 import com.google.appengine.api.datastore.DatastoreService;
 import com.google.appengine.api.datastore.DatastoreServiceFactory;
 import com.google.appengine.api.datastore.Entity;
 import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.KeyFactory;
 import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.QueryResultIterator;
 import com.google.appengine.api.datastore.Query.SortDirection;
+import com.google.appengine.api.taskqueue.QueueFactory;
+import com.google.appengine.api.taskqueue.TaskOptions;
 import com.google.appengine.api.users.User;
 import com.google.appengine.api.users.UserService;
 import com.google.appengine.api.users.UserServiceFactory;
-import com.google.cloud.translate.Translate;
-import com.google.cloud.translate.Translate.TranslateOption;
-import com.google.cloud.translate.TranslateException;
-import com.google.cloud.translate.TranslateOptions;
-import com.google.cloud.translate.Translation;
 import com.google.gson.Gson;
 import com.google.sps.data.Comment;
+import com.google.sps.data.CommentPage;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -30,13 +32,44 @@ import javax.servlet.http.HttpServletResponse;
  */
 @WebServlet("/comment-data")
 public class CommentServlet extends HttpServlet {
+  /**
+   * The ISO 639 code of the language comments are read in when the request names none. It is the
+   * blog page's default, and one of the languages comments are translated into when posted.
+   */
+  static final String DEFAULT_LANGUAGE_CODE = "en";
+
   private static final int DEFAULT_COMMENT_LIMIT = 10;
+  private static final int MAX_COMMENT_LIMIT = 10;
   private static final int MAX_COMMENT_CHARS = 320;
 
+  private CommentTranslator translator;
+
+  @Override
+  public void init() {
+    translator = CommentTranslator.create();
+  }
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
     int commentLimit = getCommentLimit(request);
     String languageCode = request.getParameter(CommentKeys.LANGUAGE_CODE_PROPERTY);
+    if (languageCode == null || languageCode.isEmpty()) {
+      languageCode = DEFAULT_LANGUAGE_CODE;
+    }
+    Optional<Cursor> cursor = getCursor(request);
+
+    LatestCommentsCache cache = LatestCommentsCache.INSTANCE;
+    long cacheGeneration = cache.getGeneration();
+
+    if (!cursor.isPresent()) {
+      Optional<String> cachedJson = cache.get(languageCode, commentLimit);
+
+      if (cachedJson.isPresent()) {
+        response.setContentType("application/json");
+        response.getWriter().println(cachedJson.get());
+        return;
+      }
+    }
 
     Query query = new Query(CommentKeys.COMMENT_KIND)
                       .addSort(CommentKeys.TIMESTAMP_MILLIS_PROPERTY, SortDirection.DESCENDING);
@@ -44,22 +77,48 @@ public class CommentServlet extends HttpServlet {
     DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
     PreparedQuery queryResults = datastore.prepare(query);
 
-    List<Comment> comments = new ArrayList<>();
+    // One comment more than the page is fetched, to find out whether there is a next page.
+    FetchOptions fetchOptions = FetchOptions.Builder.withLimit(commentLimit + 1);
+    cursor.ifPresent(fetchOptions::startCursor);
+
+    QueryResultIterator<Entity> commentIterator = queryResults.asQueryResultIterator(fetchOptions);
+    List<Entity> commentEntities = new ArrayList<>(commentLimit);
+
+    while (commentEntities.size() < commentLimit && commentIterator.hasNext()) {
+      commentEntities.add(commentIterator.next());
+    }
+
+    CommentTranslator.Translations translations =
+        getTranslatedMessages(commentEntities, languageCode);
+    List<String> translatedMessages = translations.getMessages();
+
+    List<Comment> comments = new ArrayList<>(commentEntities.size());
 
-    for (Entity commentEntity :
-        queryResults.asIterable(FetchOptions.Builder.withLimit(commentLimit))) {
+    for (int i = 0; i < commentEntities.size(); i++) {
+      Entity commentEntity = commentEntities.get(i);
       String email = (String) commentEntity.getProperty(CommentKeys.EMAIL_PROPERTY);
       String name = (String) commentEntity.getProperty(CommentKeys.NAME_PROPERTY);
-      String message = (String) commentEntity.getProperty(CommentKeys.MESSAGE_PROPERTY);
       long timestampMillis =
           (long) commentEntity.getProperty(CommentKeys.TIMESTAMP_MILLIS_PROPERTY);
 
-      comments.add(
-          new Comment(email, name, getMessageTranslation(message, languageCode), timestampMillis));
+      comments.add(new Comment(email, name, translatedMessages.get(i), timestampMillis));
+    }
+
+    // The cursor points after the last comment returned by next(), not after the extra one.
+    String nextCursor = null;
+    if (commentIterator.hasNext()) {
+      nextCursor = commentIterator.getCursor().toWebSafeString();
+    }
+
+    String json = new Gson().toJson(new CommentPage(comments, nextCursor));
+
+    // A page that fell back to untranslated messages is served, but not kept.
+    if (!cursor.isPresent() && translations.isComplete()) {
+      cache.put(cacheGeneration, languageCode, commentLimit, json);
     }
 
     response.setContentType("application/json");
-    response.getWriter().println(new Gson().toJson(comments));
+    response.getWriter().println(json);
   }
 
   @Override
@@ -90,10 +149,102 @@ public class CommentServlet extends HttpServlet {
 
     DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
     datastore.put(commentEntity);
+    LatestCommentsCache.INSTANCE.invalidate();
+
+    QueueFactory.getDefaultQueue().add(
+        TaskOptions.Builder.withUrl(TranslateCommentServlet.URL)
+            .param(CommentKeys.COMMENT_KEY_PROPERTY,
+                KeyFactory.keyToString(commentEntity.getKey())));
 
     response.sendRedirect("/blog.html");
   }
 
+  /**
+   * Retrieves the cursor parameter from an HTTP request, so that a page of comments can continue
+   * where the previous one ended instead of skipping over the comments before it.
+   *
+   * @param request The HTTP request that may hold the cursor parameter
+   * @return The cursor wrapped in an {@link Optional}, empty if the first page is requested or the
+   *         cursor is invalid
+   */
+  private static Optional<Cursor> getCursor(HttpServletRequest request) {
+    String cursorString = request.getParameter(CommentKeys.CURSOR_PROPERTY);
+
+    if (cursorString == null || cursorString.isEmpty()) {
+      return Optional.empty();
+    }
+
+    try {
+      return Optional.of(Cursor.fromWebSafeString(cursorString));
+    } catch (IllegalArgumentException e) {
+      System.err.println("Could not parse cursor: " + cursorString);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Finds the messages of comments in a language. Translations into the popular languages are
+   * stored on the comment entities by {@link TranslateCommentServlet}, so only the messages of
+   * comments that have no stored translation are sent to the Translate API.
+   *
+   * @param commentEntities The comments whose messages we want
+   * @param languageCode The ISO 639 language code of the language we want to translate to
+   * @return The translated messages in the same order as the comments, marked incomplete if any of
+   *         them could not be translated
+   */
+  private CommentTranslator.Translations getTranslatedMessages(
+      List<Entity> commentEntities, String languageCode) {
+    String translatedMessageProperty =
+        TranslateCommentServlet.getTranslatedMessageProperty(languageCode);
+
+    List<String> messages = new ArrayList<>(commentEntities.size());
+    List<String> storedTranslations = new ArrayList<>(commentEntities.size());
+
+    for (Entity commentEntity : commentEntities) {
+      messages.add((String) commentEntity.getProperty(CommentKeys.MESSAGE_PROPERTY));
+      storedTranslations.add((String) commentEntity.getProperty(translatedMessageProperty));
+    }
+
+    return translateMissing(translator, messages, storedTranslations, languageCode);
+  }
+
+  /**
+   * Fills in the translations that were not stored, sending only their messages to the
+   * translator.
+   *
+   * @param messages The original messages
+   * @param storedTranslations The stored translation of each message, or null if there is none
+   * @param languageCode The ISO 639 language code of the language we want to translate to
+   * @return The translated messages in the same order, marked incomplete if any of them could not
+   *         be translated
+   */
+  static CommentTranslator.Translations translateMissing(CommentTranslator translator,
+      List<String> messages, List<String> storedTranslations, String languageCode) {
+    List<String> translatedMessages = new ArrayList<>(storedTranslations);
+    List<Integer> untranslatedIndices = new ArrayList<>();
+    List<String> untranslatedMessages = new ArrayList<>();
+
+    for (int i = 0; i < translatedMessages.size(); i++) {
+      if (translatedMessages.get(i) == null) {
+        untranslatedIndices.add(i);
+        untranslatedMessages.add(messages.get(i));
+      }
+    }
+
+    if (untranslatedMessages.isEmpty()) {
+      return new CommentTranslator.Translations(translatedMessages, /* complete= */ true);
+    }
+
+    CommentTranslator.Translations fetched =
+        translator.translate(untranslatedMessages, languageCode);
+
+    for (int i = 0; i < untranslatedIndices.size(); i++) {
+      translatedMessages.set(untranslatedIndices.get(i), fetched.getMessages().get(i));
+    }
+
+    return new CommentTranslator.Translations(translatedMessages, fetched.isComplete());
+  }
+
   /**
    * Retrieves the comment limit parameter from an HTTP request and checks if its valid.
    *
@@ -112,37 +263,15 @@ public class CommentServlet extends HttpServlet {
       return DEFAULT_COMMENT_LIMIT;
     }
 
-    if (commentLimit < 1 || commentLimit > 10) {
-      System.err.println("Comment limit cannot be outside the range [1-10]: " + commentLimit);
+    if (commentLimit < 1 || commentLimit > MAX_COMMENT_LIMIT) {
+      System.err.println("Comment limit cannot be outside the range [1-" + MAX_COMMENT_LIMIT + "]: "
+          + commentLimit);
       return DEFAULT_COMMENT_LIMIT;
     }
 
     return commentLimit;
   }
 
-  /**
-   * Translates a message using Google's Translate API.
-   * @param message The message to be translated
-   * @param languageCode The ISO 639 language code of the language we want to translate to
-   *
-   * @return The translated message if the translation was successful, otherwise the original text
-   */
-  private static String getMessageTranslation(String message, String languageCode) {
-    String translatedMessage;
-
-    try {
-      Translate translationService = TranslateOptions.getDefaultInstance().getService();
-      Translation translation =
-          translationService.translate(message, TranslateOption.targetLanguage(languageCode));
-      translatedMessage = translation.getTranslatedText();
-    } catch (TranslateException e) {
-      System.err.println("Message could not be translated: " + e.getMessage());
-      return message;
-    }
-
-    return translatedMessage;
-  }
-
   /**
    * Checks if the message in the comment is of valid length.
    *
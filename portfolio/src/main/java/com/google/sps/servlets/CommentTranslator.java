@@ -0,0 +1,236 @@
+package com.google.sps.servlets;
+
+import com.google.cloud.NoCredentials;
+import com.google.cloud.translate.Translate;
+import com.google.cloud.translate.Translate.TranslateOption;
+import com.google.cloud.translate.TranslateException;
+import com.google.cloud.translate.TranslateOptions;
+import com.google.cloud.translate.Translation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Translates comment messages using Google's Translate API. Every message of a page that has not
+ * been translated recently is sent in a single batched request, and the translations are kept in a
+ * bounded least-recently-used cache.
+ */
+final class CommentTranslator {
+  /**
+   * System property holding the host of the translation backend, for example the address of a
+   * local fake server. The default Google endpoint is used when it is not set.
+   */
+  static final String HOST_PROPERTY = "sps.translate.host";
+
+  private static final int DEFAULT_CACHE_SIZE = 1024;
+
+  private final Backend backend;
+  private final Map<CacheKey, String> cache;
+
+  /**
+   * @param backend The backend used for cache misses
+   * @param cacheSize The maximum number of translations to keep
+   */
+  CommentTranslator(Backend backend, int cacheSize) {
+    this.backend = backend;
+    this.cache = Collections.synchronizedMap(new LinkedHashMap<CacheKey, String>(
+        16, 0.75f, /* accessOrder= */ true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<CacheKey, String> eldest) {
+        return size() > cacheSize;
+      }
+    });
+  }
+
+  /**
+   * Creates a translator whose client talks to the host named by {@link #HOST_PROPERTY}, or to
+   * Google's Translate API if the property is not set.
+   */
+  static CommentTranslator create() {
+    String host = System.getProperty(HOST_PROPERTY);
+
+    TranslateOptions options;
+    if (host == null) {
+      options = TranslateOptions.getDefaultInstance();
+    } else {
+      options = TranslateOptions.newBuilder()
+                    .setHost(host)
+                    .setCredentials(NoCredentials.getInstance())
+                    .build();
+    }
+
+    Translate translationService = options.getService();
+
+    return new CommentTranslator((messages, languageCode) -> {
+      List<Translation> translations =
+          translationService.translate(messages, TranslateOption.targetLanguage(languageCode));
+      List<String> translatedMessages = new ArrayList<>(translations.size());
+
+      for (Translation translation : translations) {
+        translatedMessages.add(translation.getTranslatedText());
+      }
+
+      return translatedMessages;
+    }, DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * Translates messages, making at most one remote call for all of them.
+   *
+   * @param messages The messages to be translated
+   * @param languageCode The ISO 639 language code of the language we want to translate to
+   * @return The translated messages in the same order. A message that could not be translated is
+   *     returned as is, and the result is marked incomplete.
+   */
+  Translations translate(List<String> messages, String languageCode) {
+    Map<String, String> translations = new HashMap<>();
+    Set<String> misses = new LinkedHashSet<>();
+
+    for (String message : messages) {
+      String translatedMessage = cache.get(new CacheKey(message, languageCode));
+
+      if (translatedMessage == null) {
+        misses.add(message);
+      } else {
+        translations.put(message, translatedMessage);
+      }
+    }
+
+    boolean complete = true;
+    try {
+      translations.putAll(fetch(new ArrayList<>(misses), languageCode));
+    } catch (TranslateException e) {
+      System.err.println("Messages could not be translated: " + e.getMessage());
+      complete = false;
+    }
+
+    List<String> translatedMessages = new ArrayList<>(messages.size());
+
+    for (String message : messages) {
+      translatedMessages.add(translations.getOrDefault(message, message));
+    }
+
+    return new Translations(translatedMessages, complete);
+  }
+
+  /**
+   * Translates a single message.
+   *
+   * @param message The message to be translated
+   * @param languageCode The ISO 639 language code of the language we want to translate to
+   * @return The translated message
+   * @throws TranslateException if the message is not cached and could not be translated
+   */
+  String translateOrThrow(String message, String languageCode) {
+    String translatedMessage = cache.get(new CacheKey(message, languageCode));
+
+    if (translatedMessage != null) {
+      return translatedMessage;
+    }
+
+    return fetch(Collections.singletonList(message), languageCode).get(message);
+  }
+
+  /**
+   * Translates messages in a single batched call and caches the results.
+   *
+   * @return The translations by original message
+   * @throws TranslateException if the messages could not be translated
+   */
+  private Map<String, String> fetch(List<String> messages, String languageCode) {
+    if (messages.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    List<String> translatedMessages = backend.translate(messages, languageCode);
+
+    Map<String, String> fetched = new HashMap<>();
+
+    for (int i = 0; i < messages.size(); i++) {
+      String translatedMessage = translatedMessages.get(i);
+
+      fetched.put(messages.get(i), translatedMessage);
+      cache.put(new CacheKey(messages.get(i), languageCode), translatedMessage);
+    }
+
+    return fetched;
+  }
+
+  /**
+   * Translates messages into a language with one remote call. The Translate API client is wrapped
+   * in one by {@link #create()}, and tests can substitute a fake.
+   */
+  interface Backend {
+    /**
+     * @param messages The messages to be translated
+     * @param languageCode The ISO 639 language code of the language we want to translate to
+     * @return The translated messages in the same order
+     * @throws TranslateException if the messages could not be translated
+     */
+    List<String> translate(List<String> messages, String languageCode);
+  }
+
+  /**
+   * Translated messages, along with whether every message was actually translated. Messages that
+   * could not be translated hold the original text, which must not be cached as a translation.
+   */
+  static final class Translations {
+    private final List<String> messages;
+    private final boolean complete;
+
+    Translations(List<String> messages, boolean complete) {
+      this.messages = messages;
+      this.complete = complete;
+    }
+
+    List<String> getMessages() {
+      return messages;
+    }
+
+    /**
+     * Returns true if no message fell back to its original text.
+     */
+    boolean isComplete() {
+      return complete;
+    }
+  }
+
+  /**
+   * Identifies the translation of a message into a language. The hash is computed once, and the
+   * message itself is compared on a hash match so that colliding messages never share an entry.
+   */
+  private static final class CacheKey {
+    private final String message;
+    private final String languageCode;
+    private final int hash;
+
+    CacheKey(String message, String languageCode) {
+      this.message = message;
+      this.languageCode = languageCode;
+      this.hash = Objects.hash(message, languageCode);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof CacheKey)) {
+        return false;
+      }
+
+      CacheKey key = (CacheKey) other;
+      return hash == key.hash
+          && Objects.equals(languageCode, key.languageCode)
+          && Objects.equals(message, key.message);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
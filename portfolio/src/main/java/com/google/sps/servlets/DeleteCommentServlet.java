@@ -34,6 +34,7 @@ public class DeleteCommentServlet extends HttpServlet {
       }
 
       transaction.commit();
+      LatestCommentsCache.INSTANCE.invalidate();
     } finally {
       if (transaction.isActive()) {
         transaction.rollback();
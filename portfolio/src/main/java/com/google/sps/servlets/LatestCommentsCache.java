@@ -0,0 +1,105 @@
+package com.google.sps.servlets;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-process cache of the serialized first page of comments, by language and page size. Reading
+ * the newest comments is far more common than posting one, so the first page is only read from the
+ * Datastore again after a comment was posted, translated or deleted.
+ *
+ * <p>Every instance of the app has its own cache and only sees the writes it served itself, so
+ * entries also expire after {@link #TTL_MILLIS}.
+ */
+final class LatestCommentsCache {
+  static final LatestCommentsCache INSTANCE = new LatestCommentsCache();
+
+  static final long TTL_MILLIS = 30_000;
+
+  private static final int MAX_PAGES = 256;
+
+  private final Map<String, CachedPage> pages = new LinkedHashMap<String, CachedPage>(
+      16, 0.75f, /* accessOrder= */ true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, CachedPage> eldest) {
+      return size() > MAX_PAGES;
+    }
+  };
+
+  private long generation = 0;
+  private long hits = 0;
+  private long misses = 0;
+
+  private LatestCommentsCache() {}
+
+  /**
+   * Returns the number of times the cache was invalidated. Read it before querying the Datastore
+   * and pass it to {@link #put}, so that a page read before a write is never cached after it.
+   */
+  synchronized long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Finds the cached JSON of the first page of comments.
+   *
+   * @param languageCode The ISO 639 language code the messages are translated to
+   * @param commentLimit The number of comments on the page
+   * @return The JSON of the page wrapped in an {@link Optional}, empty if it is not cached
+   */
+  synchronized Optional<String> get(String languageCode, int commentLimit) {
+    CachedPage page = pages.get(getKey(languageCode, commentLimit));
+
+    if (page == null || page.expiresAtMillis < System.currentTimeMillis()) {
+      misses++;
+      return Optional.empty();
+    }
+
+    hits++;
+    return Optional.of(page.json);
+  }
+
+  /**
+   * Caches the JSON of the first page of comments, unless the cache was invalidated since
+   * {@code generation} was read.
+   */
+  synchronized void put(long generation, String languageCode, int commentLimit, String json) {
+    if (generation != this.generation) {
+      return;
+    }
+
+    pages.put(getKey(languageCode, commentLimit),
+        new CachedPage(json, System.currentTimeMillis() + TTL_MILLIS));
+  }
+
+  /**
+   * Drops every cached page. Called whenever comments are written.
+   */
+  synchronized void invalidate() {
+    generation++;
+    pages.clear();
+  }
+
+  synchronized long getHits() {
+    return hits;
+  }
+
+  synchronized long getMisses() {
+    return misses;
+  }
+
+  private static String getKey(String languageCode, int commentLimit) {
+    return languageCode + "/" + commentLimit;
+  }
+
+  private static final class CachedPage {
+    private final String json;
+    private final long expiresAtMillis;
+
+    CachedPage(String json, long expiresAtMillis) {
+      this.json = json;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+  }
+}
@@ -3,38 +3,94 @@ package com.google.sps.servlets;
 import com.google.appengine.api.datastore.DatastoreService;
 import com.google.appengine.api.datastore.DatastoreServiceFactory;
 import com.google.appengine.api.datastore.Entity;
-import com.google.appengine.api.datastore.PreparedQuery;
-import com.google.appengine.api.datastore.Query;
-import com.google.appengine.api.datastore.Query.FilterOperator;
-import com.google.appengine.api.datastore.Query.FilterPredicate;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.KeyFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 /**
- * Utility class used to find the nickname of a given User Entity.
+ * Utility class used to find the nickname of a given User Entity. Nicknames are looked up by key
+ * and kept in a bounded cache, whose entries expire after {@link #TTL_MILLIS} so that instances
+ * that did not serve a nickname change still pick it up.
  */
 final class NicknameFinder {
+  static final long TTL_MILLIS = 60_000;
+
+  private static final int MAX_NICKNAMES = 1024;
+
+  private static final Map<String, CachedNickname> nicknames =
+      new LinkedHashMap<String, CachedNickname>(16, 0.75f, /* accessOrder= */ true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedNickname> eldest) {
+          return size() > MAX_NICKNAMES;
+        }
+      };
+
+  private static long generation = 0;
+
   /**
    * Searches for the nickname of a User Entity with a given ID.
    *
-   * @param id The ID property associated with the entity whose nickname we want to find
+   * @param id The ID of the user, which is also the key name of their entity
    * @return The nickname of the entity wrapped in an {@link Optional}
    */
   static Optional<String> getNickname(String id) {
-    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+    long fetchGeneration;
+    synchronized (nicknames) {
+      CachedNickname cachedNickname = nicknames.get(id);
+
+      if (cachedNickname != null && cachedNickname.expiresAtMillis >= System.currentTimeMillis()) {
+        return cachedNickname.nickname;
+      }
+
+      fetchGeneration = generation;
+    }
+
+    Optional<String> nickname = fetchNickname(id);
+
+    synchronized (nicknames) {
+      // A nickname stored while this one was fetched may have been missed, so it is not cached.
+      if (fetchGeneration == generation) {
+        nicknames.put(id, new CachedNickname(nickname, System.currentTimeMillis() + TTL_MILLIS));
+      }
+    }
 
-    Query query =
-        new Query(UserKeys.USER_KIND)
-            .setFilter(new FilterPredicate(UserKeys.ID_PROPERTY, FilterOperator.EQUAL, id));
-    PreparedQuery queryResults = datastore.prepare(query);
+    return nickname;
+  }
 
-    Entity userEntity = queryResults.asSingleEntity();
+  /**
+   * Drops the cached nickname of a user. Called whenever their nickname is stored.
+   */
+  static void invalidate(String id) {
+    synchronized (nicknames) {
+      generation++;
+      nicknames.remove(id);
+    }
+  }
 
-    if (userEntity == null) {
+  private static Optional<String> fetchNickname(String id) {
+    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+
+    Entity userEntity;
+    try {
+      userEntity = datastore.get(KeyFactory.createKey(UserKeys.USER_KIND, id));
+    } catch (EntityNotFoundException e) {
       return Optional.empty();
     }
 
     return Optional.ofNullable((String) userEntity.getProperty(UserKeys.NICKNAME_PROPERTY));
   }
 
+  private static final class CachedNickname {
+    private final Optional<String> nickname;
+    private final long expiresAtMillis;
+
+    CachedNickname(Optional<String> nickname, long expiresAtMillis) {
+      this.nickname = nickname;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+  }
+
   private NicknameFinder() {}
 }
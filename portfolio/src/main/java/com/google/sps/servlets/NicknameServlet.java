@@ -60,6 +60,7 @@ public class NicknameServlet extends HttpServlet {
 
     DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
     datastore.put(userDataEntity);
+    NicknameFinder.invalidate(id);
 
     response.sendRedirect("/blog.html");
   }
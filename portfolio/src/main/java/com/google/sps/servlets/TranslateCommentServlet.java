@@ -0,0 +1,129 @@
+package com.google.sps.servlets;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Transaction;
+import com.google.cloud.translate.TranslateException;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Task queue worker that translates a newly posted comment into the popular languages and stores
+ * the translations on the comment entity, so that reading comments does not wait on the
+ * Translate API.
+ */
+@WebServlet(TranslateCommentServlet.URL)
+public class TranslateCommentServlet extends HttpServlet {
+  static final String URL = "/translate-comment-task";
+
+  /**
+   * System property holding the comma-separated ISO 639 codes of the languages comments are
+   * translated into when they are posted.
+   */
+  static final String LANGUAGES_PROPERTY = "sps.translate.languages";
+
+  // Includes the language the blog page reads comments in by default, so that reads in it are
+  // answered from the stored translations.
+  private static final String DEFAULT_LANGUAGES = "en,es,fr,zh,ja,pt";
+  private static final String QUEUE_NAME_HEADER = "X-AppEngine-QueueName";
+
+  private CommentTranslator translator;
+  private String[] languageCodes;
+
+  @Override
+  public void init() {
+    translator = CommentTranslator.create();
+    languageCodes = getLanguageCodes();
+  }
+
+  /**
+   * Returns the ISO 639 codes of the languages comments are translated into when they are posted.
+   */
+  static String[] getLanguageCodes() {
+    return System.getProperty(LANGUAGES_PROPERTY, DEFAULT_LANGUAGES).split(",");
+  }
+
+  /**
+   * Translates the comment whose key is given by the request. Only the task queue may call this,
+   * App Engine removes the queue name header from external requests. A failed translation is
+   * answered with an error status so that the task queue retries it.
+   */
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    if (request.getHeader(QUEUE_NAME_HEADER) == null) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+
+    Key commentKey = KeyFactory.stringToKey(request.getParameter(CommentKeys.COMMENT_KEY_PROPERTY));
+    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+
+    Entity commentEntity;
+    try {
+      commentEntity = datastore.get(commentKey);
+    } catch (EntityNotFoundException e) {
+      return;
+    }
+
+    String message = (String) commentEntity.getProperty(CommentKeys.MESSAGE_PROPERTY);
+
+    Map<String, String> translatedMessages = new LinkedHashMap<>();
+    try {
+      for (String languageCode : languageCodes) {
+        translatedMessages.put(languageCode, translator.translateOrThrow(message, languageCode));
+      }
+    } catch (TranslateException e) {
+      System.err.println("Comment could not be translated, retrying: " + e.getMessage());
+      response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      return;
+    }
+
+    storeTranslations(datastore, commentKey, translatedMessages);
+  }
+
+  /**
+   * Stores the translations on the comment entity, unless it was deleted while they were being
+   * fetched.
+   *
+   * @param translatedMessages The translated messages by ISO 639 language code
+   */
+  private static void storeTranslations(
+      DatastoreService datastore, Key commentKey, Map<String, String> translatedMessages) {
+    Transaction transaction = datastore.beginTransaction();
+
+    try {
+      Entity commentEntity = datastore.get(transaction, commentKey);
+
+      for (Map.Entry<String, String> translatedMessage : translatedMessages.entrySet()) {
+        commentEntity.setUnindexedProperty(
+            getTranslatedMessageProperty(translatedMessage.getKey()), translatedMessage.getValue());
+      }
+
+      datastore.put(transaction, commentEntity);
+      transaction.commit();
+      LatestCommentsCache.INSTANCE.invalidate();
+    } catch (EntityNotFoundException e) {
+      return;
+    } finally {
+      if (transaction.isActive()) {
+        transaction.rollback();
+      }
+    }
+  }
+
+  /**
+   * Returns the name of the comment property holding the message translated into a language.
+   */
+  static String getTranslatedMessageProperty(String languageCode) {
+    return CommentKeys.TRANSLATED_MESSAGE_PROPERTY_PREFIX + languageCode;
+  }
+}
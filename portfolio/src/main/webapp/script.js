@@ -97,24 +97,57 @@ async function allowPostComment() {
   }
 }
 
+/** The cursor of the next page of comments, or null if there are no more. */
+let nextCommentsCursor = null;
+
 /**
- * Fetches comments from CommentServlet and adds them to the comments section.
+ * Fetches the first page of comments from CommentServlet and replaces the
+ * comments section with it.
  */
 async function getComments() {
+  $('#comments-container').empty();
+  await getCommentsPage(null);
+}
+
+/**
+ * Fetches the page of comments after the ones already shown and appends it to
+ * the comments section.
+ */
+async function getMoreComments() {
+  if (nextCommentsCursor !== null) {
+    await getCommentsPage(nextCommentsCursor);
+  }
+}
+
+/**
+ * Fetches a page of comments from CommentServlet and appends them to the
+ * comments section.
+ *
+ * @param { ?string } cursor - The cursor the page starts at, or null for the
+ *     first page
+ */
+async function getCommentsPage(cursor) {
   try {
-    const commentsResponse = await fetch(
-        '/comment-data?commentLimit=' + $('#comment-limit').val() +
-        '&languageCode=' + $('#language-selector').val());
+    let url = '/comment-data?commentLimit=' + $('#comment-limit').val() +
+        '&languageCode=' + $('#language-selector').val();
 
-    const comments = await commentsResponse.json();
+    if (cursor !== null) {
+      url += '&cursor=' + encodeURIComponent(cursor);
+    }
+
+    const commentsResponse = await fetch(url);
+    const commentPage = await commentsResponse.json();
 
     const commentsContainer = $('#comments-container');
-    commentsContainer.empty();
 
-    for (comment of comments) {
+    for (comment of commentPage.comments) {
       commentsContainer.append(createComment(
           comment.name, comment.message, moment(comment.timestampMillis)));
     }
+
+    nextCommentsCursor = commentPage.cursor === undefined ?
+        null : commentPage.cursor;
+    $('#more-comments').toggleClass('invisible', nextCommentsCursor === null);
   } catch (err) {
     console.log('failed to fetch comments: ' + err);
   }
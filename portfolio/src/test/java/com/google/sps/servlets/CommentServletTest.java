@@ -0,0 +1,57 @@
+package com.google.sps.servlets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CommentServletTest {
+  private static final String MESSAGE_A = "Message A";
+  private static final String MESSAGE_B = "Message B";
+
+  @Test
+  public void defaultLanguageIsTranslatedWhenCommentsArePosted() {
+    Assert.assertTrue(Arrays.asList(TranslateCommentServlet.getLanguageCodes())
+        .contains(CommentServlet.DEFAULT_LANGUAGE_CODE));
+  }
+
+  @Test
+  public void defaultLanguageReadNeverCallsTranslator() {
+    CommentTranslator translator = new CommentTranslator((messages, languageCode) -> {
+      throw new AssertionError("Translator called for " + messages);
+    }, /* cacheSize= */ 10);
+
+    CommentTranslator.Translations translations = CommentServlet.translateMissing(translator,
+        Arrays.asList(MESSAGE_A, MESSAGE_B), Arrays.asList("Stored A", "Stored B"),
+        CommentServlet.DEFAULT_LANGUAGE_CODE);
+
+    Assert.assertEquals(Arrays.asList("Stored A", "Stored B"), translations.getMessages());
+    Assert.assertTrue(translations.isComplete());
+  }
+
+  @Test
+  public void onlyMessagesWithoutStoredTranslationsAreTranslated() {
+    List<List<String>> calls = new ArrayList<>();
+    CommentTranslator translator = new CommentTranslator((messages, languageCode) -> {
+      calls.add(messages);
+
+      List<String> translatedMessages = new ArrayList<>();
+      for (String message : messages) {
+        translatedMessages.add("Fetched " + message);
+      }
+      return translatedMessages;
+    }, /* cacheSize= */ 10);
+
+    CommentTranslator.Translations translations = CommentServlet.translateMissing(translator,
+        Arrays.asList(MESSAGE_A, MESSAGE_B), Arrays.asList(null, "Stored B"), "it");
+
+    Assert.assertEquals(Arrays.asList("Fetched " + MESSAGE_A, "Stored B"),
+        translations.getMessages());
+    Assert.assertEquals(Arrays.asList(Arrays.asList(MESSAGE_A)), calls);
+  }
+}
@@ -0,0 +1,93 @@
+package com.google.sps.servlets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CommentTranslatorTest {
+  private static final String SPANISH = "es";
+  private static final String FRENCH = "fr";
+
+  private static final String MESSAGE_A = "Message A";
+  private static final String MESSAGE_B = "Message B";
+  private static final String MESSAGE_C = "Message C";
+
+  @Test
+  public void pageIsTranslatedInOneBatchedCall() {
+    FakeBackend backend = new FakeBackend();
+    CommentTranslator translator = new CommentTranslator(backend, /* cacheSize= */ 10);
+
+    CommentTranslator.Translations translations =
+        translator.translate(Arrays.asList(MESSAGE_A, MESSAGE_B, MESSAGE_A), SPANISH);
+
+    Assert.assertEquals(Arrays.asList("es:" + MESSAGE_A, "es:" + MESSAGE_B, "es:" + MESSAGE_A),
+        translations.getMessages());
+    Assert.assertTrue(translations.isComplete());
+    Assert.assertEquals(
+        Collections.singletonList(Arrays.asList(MESSAGE_A, MESSAGE_B)), backend.calls);
+  }
+
+  @Test
+  public void repeatedPageIsServedFromCache() {
+    FakeBackend backend = new FakeBackend();
+    CommentTranslator translator = new CommentTranslator(backend, /* cacheSize= */ 10);
+
+    translator.translate(Arrays.asList(MESSAGE_A, MESSAGE_B), SPANISH);
+    CommentTranslator.Translations translations =
+        translator.translate(Arrays.asList(MESSAGE_A, MESSAGE_B), SPANISH);
+
+    Assert.assertEquals(Arrays.asList("es:" + MESSAGE_A, "es:" + MESSAGE_B),
+        translations.getMessages());
+    Assert.assertEquals(1, backend.calls.size());
+
+    // Only the messages missing from the cache are sent, and languages are cached separately.
+    translator.translate(Arrays.asList(MESSAGE_A, MESSAGE_C), SPANISH);
+    translator.translate(Arrays.asList(MESSAGE_A), FRENCH);
+
+    Assert.assertEquals(Arrays.asList(Arrays.asList(MESSAGE_A, MESSAGE_B),
+        Arrays.asList(MESSAGE_C), Arrays.asList(MESSAGE_A)), backend.calls);
+  }
+
+  @Test
+  public void leastRecentlyUsedTranslationIsEvicted() {
+    FakeBackend backend = new FakeBackend();
+    CommentTranslator translator = new CommentTranslator(backend, /* cacheSize= */ 2);
+
+    translator.translate(Arrays.asList(MESSAGE_A, MESSAGE_B), SPANISH);
+    // Reading A makes B the least recently used translation, so C evicts B.
+    translator.translate(Arrays.asList(MESSAGE_A), SPANISH);
+    translator.translate(Arrays.asList(MESSAGE_C), SPANISH);
+    backend.calls.clear();
+
+    translator.translate(Arrays.asList(MESSAGE_A), SPANISH);
+    Assert.assertEquals(Collections.emptyList(), backend.calls);
+
+    translator.translate(Arrays.asList(MESSAGE_B), SPANISH);
+    Assert.assertEquals(Collections.singletonList(Arrays.asList(MESSAGE_B)), backend.calls);
+  }
+
+  /**
+   * Translates each message by prefixing it with the language code, and records every call.
+   */
+  private static final class FakeBackend implements CommentTranslator.Backend {
+    private final List<List<String>> calls = new ArrayList<>();
+
+    @Override
+    public List<String> translate(List<String> messages, String languageCode) {
+      calls.add(new ArrayList<>(messages));
+
+      List<String> translatedMessages = new ArrayList<>(messages.size());
+      for (String message : messages) {
+        translatedMessages.add(languageCode + ":" + message);
+      }
+      return translatedMessages;
+    }
+  }
+}
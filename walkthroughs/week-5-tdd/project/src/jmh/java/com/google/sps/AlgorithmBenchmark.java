@@ -0,0 +1,72 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link FindMeetingQuery.Algorithm}s on indexed calendars while varying the number of
+ * attendees and how busy they are, to find where the minute bitmap overtakes sort-and-merge.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlgorithmBenchmark {
+  private static final int PEOPLE = 1000;
+
+  @Param({"SORT_AND_MERGE", "MINUTE_BITMAP"})
+  public FindMeetingQuery.Algorithm algorithm;
+
+  @Param({"2", "8", "32", "128"})
+  public int attendees;
+
+  @Param({"2", "10", "40"})
+  public int eventsPerPerson;
+
+  private EventIndex index;
+  private MeetingRequest request;
+  private FindMeetingQuery query;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    List<String> names = CalendarGenerator.people(PEOPLE);
+    index = new EventIndex(CalendarGenerator.events(random, names, eventsPerPerson));
+    request = CalendarGenerator.request(random, names, attendees, /* optional= */ 0, 30);
+    query = new FindMeetingQuery(algorithm);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> query() {
+    return query.query(index, request);
+  }
+}
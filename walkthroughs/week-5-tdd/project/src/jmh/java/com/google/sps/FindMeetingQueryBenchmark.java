@@ -0,0 +1,80 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the packed interval engine in {@code FindMeetingQuery} against the original
+ * {@code TimeRange}-based implementation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindMeetingQueryBenchmark {
+  @Param({"10", "100", "1000"})
+  public int people;
+
+  @Param({"5", "20"})
+  public int eventsPerPerson;
+
+  private List<Event> events;
+  private EventIndex index;
+  private MeetingRequest request;
+  private final FindMeetingQuery query = new FindMeetingQuery();
+  private final ReferenceFindMeetingQuery reference = new ReferenceFindMeetingQuery();
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    List<String> names = CalendarGenerator.people(people);
+    events = CalendarGenerator.events(random, names, eventsPerPerson);
+    index = new EventIndex(events);
+    request = CalendarGenerator.request(
+        random, names, Math.min(3, people / 2), Math.min(3, people / 2), 30);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> packedIntervals() {
+    return query.query(events, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> indexedIntervals() {
+    return query.query(index, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> timeRangeIntervals() {
+    return reference.query(events, request);
+  }
+}
@@ -0,0 +1,141 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@code FindMeetingQuery.query} on synthetic calendars from 10 to 100,000 people, with 1
+ * to 50 events per person and a varying number of invitees. The calendars come from the same
+ * {@code CalendarGenerator} as the randomized tests. Each invocation answers the next request from
+ * a fixed pool, so results don't depend on one lucky request. Run through the {@code benchmarks}
+ * profile, which adds the GC profiler so that {@code gc.alloc.rate.norm} reports the bytes
+ * allocated per query next to the ops/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MeetingQueryBenchmark {
+  private static final int REQUEST_POOL_SIZE = 64;
+  private static final int DURATION_30_MINUTES = 30;
+
+  @Param({"10", "1000", "100000"})
+  public int people;
+
+  @Param({"1", "10", "50"})
+  public int eventsPerPerson;
+
+  @Param({"2", "10", "50"})
+  public int attendees;
+
+  @Param({"0", "5"})
+  public int optionalAttendees;
+
+  private List<Event> events;
+  private EventIndex index;
+  private AttendeeDictionary dictionary;
+  private List<CompactEvent> compactEvents;
+  private CalendarSnapshot snapshot;
+  private MeetingRequest[] requests;
+  private int nextRequest = 0;
+  private final FindMeetingQuery query = new FindMeetingQuery();
+  private final FindMeetingQuery parallelQuery = new FindMeetingQuery(
+      FindMeetingQuery.Algorithm.SORT_AND_MERGE, /* cache= */ null, ForkJoinPool.commonPool());
+  private final FindMeetingQuery meteredQuery = new FindMeetingQuery(
+      FindMeetingQuery.Algorithm.SORT_AND_MERGE, /* cache= */ null, /* pool= */ null,
+      new SchedulerMetrics());
+
+  @Setup
+  public void setUp() throws IOException {
+    Random random = new Random(42);
+    List<String> names = CalendarGenerator.people(people);
+    events = CalendarGenerator.events(random, names, eventsPerPerson);
+    index = new EventIndex(events);
+    dictionary = new AttendeeDictionary();
+    compactEvents = dictionary.compact(events);
+
+    // A direct buffer stands in for a mapped file: both are read in place, outside the heap.
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CalendarSnapshot.write(events, bytes);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.size());
+    buffer.put(bytes.toByteArray()).flip();
+    snapshot = CalendarSnapshot.wrap(buffer);
+
+    // The smallest calendars have fewer people than invitees, so they invite everyone.
+    int mandatory = Math.min(attendees, people);
+    int optional = Math.min(optionalAttendees, people - mandatory);
+    requests = new MeetingRequest[REQUEST_POOL_SIZE];
+    for (int i = 0; i < REQUEST_POOL_SIZE; i++) {
+      requests[i] =
+          CalendarGenerator.request(random, names, mandatory, optional, DURATION_30_MINUTES);
+    }
+  }
+
+  @Benchmark
+  public Collection<TimeRange> query() {
+    return query.query(events, nextRequest());
+  }
+
+  @Benchmark
+  public Collection<TimeRange> parallelQuery() {
+    return parallelQuery.query(events, nextRequest());
+  }
+
+  @Benchmark
+  public Collection<TimeRange> compactQuery() {
+    return query.query(compactEvents, dictionary, nextRequest());
+  }
+
+  @Benchmark
+  public Collection<TimeRange> indexedQuery() {
+    return query.query(index, nextRequest());
+  }
+
+  @Benchmark
+  public Collection<TimeRange> snapshotQuery() {
+    return query.query(snapshot, nextRequest());
+  }
+
+  @Benchmark
+  public Collection<TimeRange> meteredIndexedQuery() {
+    return meteredQuery.query(index, nextRequest());
+  }
+
+  private MeetingRequest nextRequest() {
+    nextRequest = (nextRequest + 1) % REQUEST_POOL_SIZE;
+    return requests[nextRequest];
+  }
+}
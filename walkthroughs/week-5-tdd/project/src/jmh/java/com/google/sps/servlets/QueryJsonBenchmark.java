@@ -0,0 +1,125 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the JSON handling of {@code QueryServlet} before and after streaming: a new reflective
+ * {@code Gson} per request that builds the whole response string, against the shared
+ * {@code SchedulerGson} adapters writing straight to the response writer. Runs on several threads
+ * to mimic concurrent requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class QueryJsonBenchmark {
+  @Param({"5", "100"})
+  public int attendees;
+
+  @Param({"3", "30"})
+  public int answerRanges;
+
+  private String requestJson;
+  private List<TimeRange> answer;
+
+  @Setup
+  public void setUp() {
+    StringBuilder json = new StringBuilder("{\"duration\":30,\"attendees\":[");
+    for (int i = 0; i < attendees; i++) {
+      json.append(i == 0 ? "" : ",").append("\"Person ").append(i).append('"');
+    }
+    json.append("],\"optional_attendees\":[]}");
+    requestJson = json.toString();
+
+    answer = new ArrayList<>(answerRanges);
+    for (int i = 0; i < answerRanges; i++) {
+      answer.add(TimeRange.fromStartDuration(i * 40, 30));
+    }
+  }
+
+  @Benchmark
+  public void reflectiveGson(Blackhole blackhole) {
+    Gson gson = new Gson();
+    MeetingRequest request = gson.fromJson(new StringReader(requestJson), MeetingRequest.class);
+    PrintWriter writer = new PrintWriter(new DiscardingWriter(blackhole));
+
+    writer.println(gson.toJson(answer));
+    blackhole.consume(request);
+  }
+
+  @Benchmark
+  public void streamingAdapters(Blackhole blackhole) {
+    MeetingRequest request =
+        SchedulerGson.GSON.fromJson(new StringReader(requestJson), MeetingRequest.class);
+    PrintWriter writer = new PrintWriter(new DiscardingWriter(blackhole));
+
+    SchedulerGson.GSON.toJson(answer, SchedulerGson.TIME_RANGES_TYPE, writer);
+    blackhole.consume(request);
+  }
+
+
+  /**
+   * Stands in for the servlet response writer.
+   */
+  private static final class DiscardingWriter extends Writer {
+    private final Blackhole blackhole;
+
+    DiscardingWriter(Blackhole blackhole) {
+      this.blackhole = blackhole;
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+      blackhole.consume(buffer);
+    }
+
+    @Override
+    public void write(String string, int offset, int length) {
+      blackhole.consume(string);
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,169 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns attendee names to dense {@code int} IDs, so that events can store their attendees as
+ * sorted {@code int[]}s and membership tests become merges of two small arrays instead of string
+ * hashing. IDs are assigned in order starting at zero and are never reused. The dictionary is not
+ * synchronized; callers that intern names from several threads must synchronize externally.
+ */
+public final class AttendeeDictionary {
+  /** Returned by {@link #idOf} for names that have never been interned. */
+  public static final int UNKNOWN = -1;
+
+  private final Map<String, Integer> ids = new HashMap<>();
+  private final List<String> names = new ArrayList<>();
+
+  /**
+   * Returns the ID of {@code name}, assigning the next free ID if it has not been seen before.
+   */
+  public int intern(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+
+    ids.put(name, names.size());
+    names.add(name);
+    return names.size() - 1;
+  }
+
+  /**
+   * Interns every name and returns their IDs sorted in ascending order without duplicates.
+   */
+  public int[] intern(Collection<String> names) {
+    int[] ids = new int[names.size()];
+    int size = 0;
+
+    for (String name : names) {
+      ids[size++] = intern(name);
+    }
+
+    return sortedUnique(ids, size);
+  }
+
+  /**
+   * Returns the ID of {@code name}, or {@link #UNKNOWN} if it has never been interned.
+   */
+  public int idOf(String name) {
+    Integer id = ids.get(name);
+    return id == null ? UNKNOWN : id;
+  }
+
+  /**
+   * Returns the IDs of the names that have been interned, sorted in ascending order without
+   * duplicates. Unknown names are skipped: they cannot attend any compact event.
+   */
+  public int[] idsOf(Collection<String> names) {
+    int[] ids = new int[names.size()];
+    int size = 0;
+
+    for (String name : names) {
+      int id = idOf(name);
+      if (id != UNKNOWN) {
+        ids[size++] = id;
+      }
+    }
+
+    return sortedUnique(ids, size);
+  }
+
+  /**
+   * Returns the name that was interned as {@code id}.
+   *
+   * @throws IndexOutOfBoundsException if {@code id} was never assigned
+   */
+  public String nameOf(int id) {
+    return names.get(id);
+  }
+
+  /**
+   * Returns the number of interned names.
+   */
+  public int size() {
+    return names.size();
+  }
+
+  /**
+   * Converts {@code event} to its compact form, interning its attendees.
+   */
+  public CompactEvent compact(Event event) {
+    TimeRange when = event.getWhen();
+    return new CompactEvent(
+        event.getTitle(), when.start(), when.end(), intern(event.getAttendees()));
+  }
+
+  /**
+   * Converts every event to its compact form, interning their attendees.
+   */
+  public List<CompactEvent> compact(Collection<Event> events) {
+    List<CompactEvent> compactEvents = new ArrayList<>(events.size());
+
+    for (Event event : events) {
+      compactEvents.add(compact(event));
+    }
+
+    return compactEvents;
+  }
+
+  /**
+   * Returns {@code true} if the two sorted ID arrays share at least one ID.
+   */
+  static boolean intersects(int[] idsA, int[] idsB) {
+    int i = 0, j = 0;
+
+    while (i < idsA.length && j < idsB.length) {
+      if (idsA[i] == idsB[j]) {
+        return true;
+      }
+
+      if (idsA[i] < idsB[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Sorts the first {@code size} IDs and returns them without duplicates.
+   */
+  static int[] sortedUnique(int[] ids, int size) {
+    Arrays.sort(ids, 0, size);
+
+    int unique = 0;
+    for (int i = 0; i < size; i++) {
+      if (unique == 0 || ids[unique - 1] != ids[i]) {
+        ids[unique++] = ids[i];
+      }
+    }
+
+    return unique == ids.length ? ids : Arrays.copyOf(ids, unique);
+  }
+}
@@ -0,0 +1,198 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bounded least-recently-used cache of the free intervals computed for a set of attendees. Entries
+ * are keyed by the version of the {@code EventIndex} they were computed from, so changing the
+ * index's events invalidates every entry computed before the change; stale entries are never hit
+ * again and age out of the cache. Entries are also keyed by the algorithm that computed them,
+ * since the algorithms treat zero-length events differently. The cache is safe to share between
+ * threads.
+ */
+public final class AvailabilityCache {
+  // Rough per-entry cost, in the same units as an interval or an attendee, of the key and the map
+  // entry themselves.
+  private static final int ENTRY_OVERHEAD = 8;
+
+  private final long maxWeight;
+  private final LinkedHashMap<Key, long[]> entries =
+      new LinkedHashMap<>(/* initialCapacity= */ 16, /* loadFactor= */ 0.75f,
+          /* accessOrder= */ true);
+
+  private long weight = 0;
+  private long hitCount = 0;
+  private long missCount = 0;
+  private long evictionCount = 0;
+
+  /**
+   * Creates a cache.
+   *
+   * @param maxWeight the maximum total weight of the cached entries. An entry weighs one unit per
+   *     cached interval and per attendee, plus a small constant.
+   */
+  public AvailabilityCache(long maxWeight) {
+    if (maxWeight <= 0) {
+      throw new IllegalArgumentException("maxWeight must be positive");
+    }
+
+    this.maxWeight = maxWeight;
+  }
+
+  /**
+   * Returns the cached free intervals for {@code attendees}, or computes and caches them on a miss.
+   * The computation runs without holding the cache's lock.
+   *
+   * @param version the version of the index the intervals are computed from
+   * @param algorithm the algorithm that computes the intervals
+   * @param attendees the attendees that must be free. A {@code Set}, such as a request's
+   *     attendees, is looked up without being copied.
+   * @param duration the minimum meeting duration
+   * @param compute computes the packed free intervals on a miss
+   * @return packed free intervals that must not be modified
+   */
+  long[] get(long version, FindMeetingQuery.Algorithm algorithm, Collection<String> attendees,
+      long duration, Supplier<long[]> compute) {
+    // Lookups compare the caller's set by value, so hits never copy it.
+    Set<String> attendeeSet =
+        attendees instanceof Set ? (Set<String>) attendees : new HashSet<>(attendees);
+    Key key = new Key(version, algorithm, attendeeSet, duration);
+
+    synchronized (this) {
+      long[] cached = entries.get(key);
+
+      if (cached != null) {
+        hitCount++;
+        return cached;
+      }
+
+      missCount++;
+    }
+
+    long[] intervals = compute.get();
+    long entryWeight = ENTRY_OVERHEAD + intervals.length + key.attendees.size();
+
+    if (entryWeight > maxWeight) {
+      return intervals;
+    }
+
+    // The caller's set may change later, so the cached key keeps its own copy.
+    key = new Key(version, algorithm, new HashSet<>(attendeeSet), duration);
+
+    synchronized (this) {
+      long[] previous = entries.put(key, intervals);
+      weight += entryWeight;
+
+      if (previous != null) {
+        weight -= ENTRY_OVERHEAD + previous.length + key.attendees.size();
+      }
+
+      Iterator<Map.Entry<Key, long[]>> eldest = entries.entrySet().iterator();
+      while (weight > maxWeight) {
+        Map.Entry<Key, long[]> entry = eldest.next();
+        weight -= ENTRY_OVERHEAD + entry.getValue().length + entry.getKey().attendees.size();
+        eldest.remove();
+        evictionCount++;
+      }
+    }
+
+    return intervals;
+  }
+
+  /**
+   * Removes every entry. The counters are kept.
+   */
+  public synchronized void clear() {
+    entries.clear();
+    weight = 0;
+  }
+
+  /**
+   * Returns the number of cached entries.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the total weight of the cached entries.
+   */
+  public synchronized long getWeight() {
+    return weight;
+  }
+
+  /**
+   * Returns the number of lookups that found a cached entry.
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of lookups that had to compute the intervals.
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns the number of entries removed to stay within the maximum weight.
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  private static final class Key {
+    private final long version;
+    private final FindMeetingQuery.Algorithm algorithm;
+    private final Set<String> attendees;
+    private final long duration;
+    private final int hashCode;
+
+    Key(long version, FindMeetingQuery.Algorithm algorithm, Set<String> attendees,
+        long duration) {
+      this.version = version;
+      this.algorithm = algorithm;
+      this.attendees = attendees;
+      this.duration = duration;
+      this.hashCode = ((Long.hashCode(version) * 31 + algorithm.hashCode()) * 31
+          + attendees.hashCode()) * 31 + Long.hashCode(duration);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+
+      Key key = (Key) other;
+      return version == key.version && algorithm == key.algorithm && duration == key.duration
+          && attendees.equals(key.attendees);
+    }
+  }
+}
@@ -0,0 +1,249 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sweep-line over meeting start times that counts, for every possible start, how many attendees
+ * would miss a meeting starting then. A busy interval {@code [s, e)} conflicts with a meeting of
+ * duration {@code d} exactly when the meeting starts in {@code (s - d, e)}, so every attendee's
+ * merged busy intervals are widened into the start times they block. Sorting the widened bounds
+ * once answers the question for all starts in {@code O(n log n)}, without trying subsets of
+ * attendees.
+ */
+final class AvailabilitySweep {
+  private AvailabilitySweep() {}
+
+  /**
+   * Finds the meeting times, within {@code availableIntervals}, that the greatest number of
+   * attendees can attend.
+   *
+   * @param availableIntervals packed intervals in which the meeting may take place, sorted in
+   *     ascending order and at least {@code duration} long
+   * @param busyIntervalsPerAttendee each attendee's merged busy intervals in ascending order
+   * @param duration the meeting duration in minutes
+   * @return packed intervals in ascending order that fit the meeting with the fewest conflicts
+   */
+  static long[] maximizeAttendance(
+      long[] availableIntervals, List<long[]> busyIntervalsPerAttendee, long duration) {
+    int startLimit = (int) (TimeRange.WHOLE_DAY.duration() - duration + 1);
+    if (startLimit <= 0) {
+      return Intervals.EMPTY;
+    }
+
+    long[] allowedStarts = toStartIntervals(availableIntervals, duration);
+    Segments segments = countConflicts(busyIntervalsPerAttendee, duration, startLimit);
+    Segments candidates = segments.restrictTo(allowedStarts);
+
+    int fewestConflicts = Integer.MAX_VALUE;
+    for (int i = 0; i < candidates.size; i++) {
+      fewestConflicts = Math.min(fewestConflicts, candidates.conflicts[i]);
+    }
+
+    return toMeetingIntervals(candidates.withConflicts(fewestConflicts), duration);
+  }
+
+  /**
+   * Converts intervals that fit a meeting into the ranges of times the meeting may start at.
+   */
+  static long[] toStartIntervals(long[] intervals, long duration) {
+    long[] starts = new long[intervals.length];
+    int count = 0;
+
+    for (long interval : intervals) {
+      int start = Intervals.start(interval);
+      int lastStart = (int) (Intervals.end(interval) - duration);
+
+      if (lastStart >= start) {
+        starts[count++] = Intervals.pack(start, lastStart + 1);
+      }
+    }
+
+    return Arrays.copyOf(starts, count);
+  }
+
+  /**
+   * Converts ranges of start times back into the intervals occupied by meetings starting then.
+   * Start ranges that touch are joined first.
+   */
+  static long[] toMeetingIntervals(long[] startIntervals, long duration) {
+    long[] joined = startIntervals.clone();
+    int size = Intervals.merge(joined, joined.length);
+
+    for (int i = 0; i < size; i++) {
+      int start = Intervals.start(joined[i]);
+      int end = (int) (Intervals.end(joined[i]) - 1 + duration);
+      joined[i] = Intervals.pack(start, end);
+    }
+
+    return Arrays.copyOf(joined, size);
+  }
+
+  /**
+   * Splits the start times {@code [0, startLimit)} into segments with a constant number of
+   * conflicting attendees.
+   */
+  static Segments countConflicts(
+      List<long[]> busyIntervalsPerAttendee, long duration, int startLimit) {
+    int pointCount = 0;
+    for (long[] busyIntervals : busyIntervalsPerAttendee) {
+      pointCount += 2 * busyIntervals.length;
+    }
+
+    // Each point is a start time shifted left by one, with the low bit set when an attendee starts
+    // conflicting there and cleared when they stop.
+    long[] points = new long[pointCount];
+    pointCount = 0;
+
+    for (long[] busyIntervals : busyIntervalsPerAttendee) {
+      int blockedStart = -1;
+      int blockedEnd = -1;
+
+      for (long busy : busyIntervals) {
+        int start = (int) Math.max(0, Intervals.start(busy) - duration + 1);
+        int end = Math.min(startLimit, Intervals.end(busy));
+
+        if (start >= end) {
+          continue;
+        }
+
+        // Widened intervals of one attendee may overlap, but they must only be counted once.
+        if (blockedEnd >= start) {
+          blockedEnd = Math.max(blockedEnd, end);
+          continue;
+        }
+
+        if (blockedStart >= 0) {
+          points[pointCount++] = ((long) blockedStart << 1) | 1;
+          points[pointCount++] = (long) blockedEnd << 1;
+        }
+
+        blockedStart = start;
+        blockedEnd = end;
+      }
+
+      if (blockedStart >= 0) {
+        points[pointCount++] = ((long) blockedStart << 1) | 1;
+        points[pointCount++] = (long) blockedEnd << 1;
+      }
+    }
+
+    Arrays.sort(points, 0, pointCount);
+
+    Segments segments = new Segments(pointCount + 1);
+    int position = 0;
+    int conflicts = 0;
+
+    for (int i = 0; i < pointCount; i++) {
+      int pointPosition = (int) (points[i] >>> 1);
+
+      if (pointPosition > position) {
+        segments.add(position, pointPosition, conflicts);
+        position = pointPosition;
+      }
+
+      conflicts += (points[i] & 1) == 1 ? 1 : -1;
+    }
+
+    if (position < startLimit) {
+      segments.add(position, startLimit, conflicts);
+    }
+
+    return segments;
+  }
+
+  /**
+   * Start time intervals, each paired with the number of attendees that would miss a meeting
+   * starting in it.
+   */
+  static final class Segments {
+    final long[] intervals;
+    final int[] conflicts;
+    int size = 0;
+
+    Segments(int capacity) {
+      intervals = new long[capacity];
+      conflicts = new int[capacity];
+    }
+
+    void add(int start, int end, int conflictCount) {
+      intervals[size] = Intervals.pack(start, end);
+      conflicts[size] = conflictCount;
+      size++;
+    }
+
+    /**
+     * Returns the parts of these segments that fall inside {@code allowedIntervals}.
+     */
+    Segments restrictTo(long[] allowedIntervals) {
+      Segments restricted = new Segments(size + allowedIntervals.length);
+
+      int i = 0, j = 0;
+
+      while (i < size && j < allowedIntervals.length) {
+        int endA = Intervals.end(intervals[i]);
+        int endB = Intervals.end(allowedIntervals[j]);
+        int start = Math.max(Intervals.start(intervals[i]), Intervals.start(allowedIntervals[j]));
+        int end = Math.min(endA, endB);
+
+        if (end > start) {
+          restricted.add(start, end, conflicts[i]);
+        }
+
+        if (endA < endB) {
+          i++;
+        } else {
+          j++;
+        }
+      }
+
+      return restricted;
+    }
+
+    /**
+     * Returns the intervals of the segments with at most {@code maxConflicts} conflicts.
+     */
+    long[] withConflictsAtMost(int maxConflicts) {
+      long[] matching = new long[size];
+      int count = 0;
+
+      for (int i = 0; i < size; i++) {
+        if (conflicts[i] <= maxConflicts) {
+          matching[count++] = intervals[i];
+        }
+      }
+
+      return Arrays.copyOf(matching, count);
+    }
+
+    /**
+     * Returns the intervals of the segments with exactly {@code conflictCount} conflicts.
+     */
+    long[] withConflicts(int conflictCount) {
+      long[] matching = new long[size];
+      int count = 0;
+
+      for (int i = 0; i < size; i++) {
+        if (conflicts[i] == conflictCount) {
+          matching[count++] = intervals[i];
+        }
+      }
+
+      return Arrays.copyOf(matching, count);
+    }
+  }
+}
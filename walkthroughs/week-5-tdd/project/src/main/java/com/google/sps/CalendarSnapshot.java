@@ -0,0 +1,496 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A read-only calendar for a single day in a compact binary format that is queried in place, so a
+ * snapshot mapped from a file answers its first query without parsing or building {@code Event}s.
+ *
+ * <p>Attendees are interned to IDs in the order of their UTF-8 names. Events are sorted by time
+ * and stored as parallel {@code int} columns, with their attendees in compressed sparse row (CSR)
+ * form: the IDs of event {@code i} are {@code attendeeIds[attendeeRows[i]..attendeeRows[i + 1])}.
+ * The transposed lists, from each attendee to the events they attend, are stored the same way, so
+ * a query reads only the rows of the people it invites. Every number is a big-endian {@code int}:
+ *
+ * <pre>
+ *   magic, version, attendeeCount, eventCount, attendeeRefCount, stringBytes
+ *   nameOffsets[attendeeCount + 1]     offsets of each attendee's name in the strings
+ *   titleOffsets[eventCount + 1]       offsets of each event's title in the strings
+ *   starts[eventCount]
+ *   durations[eventCount]
+ *   attendeeRows[eventCount + 1]       event to attendees
+ *   attendeeIds[attendeeRefCount]
+ *   eventRows[attendeeCount + 1]       attendee to events
+ *   eventIds[attendeeRefCount]
+ *   strings[stringBytes]               UTF-8 names, then titles
+ * </pre>
+ *
+ * <p>Only absolute reads are made from the buffer, so a snapshot is safe to share between threads.
+ */
+public final class CalendarSnapshot {
+  private static final int MAGIC = 0x53505343; // "SPSC"
+  private static final int VERSION = 1;
+  private static final int HEADER_INTS = 6;
+
+  private final ByteBuffer buffer;
+  private final int attendeeCount;
+  private final int eventCount;
+
+  // The byte offset of each section in the buffer.
+  private final int nameOffsets;
+  private final int titleOffsets;
+  private final int starts;
+  private final int durations;
+  private final int attendeeRows;
+  private final int attendeeIds;
+  private final int eventRows;
+  private final int eventIds;
+  private final int strings;
+
+  private CalendarSnapshot(ByteBuffer buffer) {
+    if (buffer.limit() < HEADER_INTS * Integer.BYTES || buffer.getInt(0) != MAGIC) {
+      throw new IllegalArgumentException("not a calendar snapshot");
+    }
+
+    if (buffer.getInt(4) != VERSION) {
+      throw new IllegalArgumentException("unsupported snapshot version " + buffer.getInt(4));
+    }
+
+    this.buffer = buffer;
+    attendeeCount = buffer.getInt(8);
+    eventCount = buffer.getInt(12);
+    int attendeeRefCount = buffer.getInt(16);
+    int stringBytes = buffer.getInt(20);
+
+    if (attendeeCount < 0 || eventCount < 0 || attendeeRefCount < 0 || stringBytes < 0) {
+      throw new IllegalArgumentException("corrupt calendar snapshot");
+    }
+
+    nameOffsets = HEADER_INTS * Integer.BYTES;
+    titleOffsets = nameOffsets + (attendeeCount + 1) * Integer.BYTES;
+    starts = titleOffsets + (eventCount + 1) * Integer.BYTES;
+    durations = starts + eventCount * Integer.BYTES;
+    attendeeRows = durations + eventCount * Integer.BYTES;
+    attendeeIds = attendeeRows + (eventCount + 1) * Integer.BYTES;
+    eventRows = attendeeIds + attendeeRefCount * Integer.BYTES;
+    eventIds = eventRows + (attendeeCount + 1) * Integer.BYTES;
+    strings = eventIds + attendeeRefCount * Integer.BYTES;
+
+    if ((long) strings + stringBytes != buffer.limit()) {
+      throw new IllegalArgumentException("truncated or corrupt calendar snapshot");
+    }
+  }
+
+  /**
+   * Maps the snapshot in {@code file} into memory. Pages are read by the operating system as
+   * queries touch them, so opening a snapshot costs the same whatever its size.
+   *
+   * @throws IOException if the file can't be read
+   * @throws IllegalArgumentException if the file is not a snapshot
+   */
+  public static CalendarSnapshot open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed.
+      return new CalendarSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Reads a snapshot held in {@code buffer}, from its position to its limit. The buffer's
+   * contents must not change while the snapshot is in use.
+   *
+   * @throws IllegalArgumentException if the buffer does not hold a snapshot
+   */
+  public static CalendarSnapshot wrap(ByteBuffer buffer) {
+    return new CalendarSnapshot(buffer.slice());
+  }
+
+  /**
+   * Writes {@code events} as a snapshot to {@code out}.
+   *
+   * @param events the events occurring in a single day
+   * @param out the stream to write to. It is not closed.
+   */
+  public static void write(Collection<Event> events, OutputStream out) throws IOException {
+    // Names are sorted by their UTF-8 bytes, the order that idOf compares them in.
+    TreeSet<String> names = new TreeSet<>(Comparator.comparing(
+        (String name) -> name.getBytes(StandardCharsets.UTF_8), CalendarSnapshot::compareBytes));
+    for (Event event : events) {
+      names.addAll(event.getAttendees());
+    }
+    List<String> nameList = new ArrayList<>(names);
+    Map<String, Integer> nameIds = new HashMap<>();
+    for (String name : nameList) {
+      nameIds.put(name, nameIds.size());
+    }
+
+    Event[] sortedEvents = events.toArray(new Event[0]);
+    Arrays.sort(sortedEvents, Comparator.comparing(Event::getWhen, TimeRange.ORDER_BY_START)
+        .thenComparing(Event::getWhen, TimeRange.ORDER_BY_END));
+
+    // Build both CSR directions and the string blob before writing, since the header needs
+    // their sizes.
+    ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+    int[] nameOffsets = appendStrings(nameList, stringBytes);
+    List<String> titles = new ArrayList<>(sortedEvents.length);
+    for (Event event : sortedEvents) {
+      titles.add(event.getTitle());
+    }
+    int[] titleOffsets = appendStrings(titles, stringBytes);
+
+    int[] attendeeRows = new int[sortedEvents.length + 1];
+    int[] eventRows = new int[nameList.size() + 1];
+    List<int[]> eventAttendees = new ArrayList<>(sortedEvents.length);
+
+    for (int i = 0; i < sortedEvents.length; i++) {
+      int[] attendeeIds = new int[sortedEvents[i].getAttendees().size()];
+      int size = 0;
+      for (String attendee : sortedEvents[i].getAttendees()) {
+        attendeeIds[size++] = nameIds.get(attendee);
+      }
+      Arrays.sort(attendeeIds);
+
+      eventAttendees.add(attendeeIds);
+      attendeeRows[i + 1] = attendeeRows[i] + attendeeIds.length;
+      for (int id : attendeeIds) {
+        eventRows[id + 1]++;
+      }
+    }
+
+    for (int id = 0; id < nameList.size(); id++) {
+      eventRows[id + 1] += eventRows[id];
+    }
+
+    // Events are visited in time order, so each attendee's events come out sorted by time too.
+    int[] eventIds = new int[attendeeRows[sortedEvents.length]];
+    int[] nextEventSlot = Arrays.copyOf(eventRows, nameList.size());
+    for (int i = 0; i < sortedEvents.length; i++) {
+      for (int id : eventAttendees.get(i)) {
+        eventIds[nextEventSlot[id]++] = i;
+      }
+    }
+
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeInt(nameList.size());
+    data.writeInt(sortedEvents.length);
+    data.writeInt(eventIds.length);
+    data.writeInt(stringBytes.size());
+
+    writeInts(data, nameOffsets);
+    writeInts(data, titleOffsets);
+    for (Event event : sortedEvents) {
+      data.writeInt(event.getWhen().start());
+    }
+    for (Event event : sortedEvents) {
+      data.writeInt(event.getWhen().duration());
+    }
+    writeInts(data, attendeeRows);
+    for (int[] ids : eventAttendees) {
+      writeInts(data, ids);
+    }
+    writeInts(data, eventRows);
+    writeInts(data, eventIds);
+    stringBytes.writeTo(data);
+    data.flush();
+  }
+
+  /**
+   * Returns the number of events.
+   */
+  public int size() {
+    return eventCount;
+  }
+
+  /**
+   * Returns the number of distinct attendees.
+   */
+  public int getAttendeeCount() {
+    return attendeeCount;
+  }
+
+  /**
+   * Builds the {@code Event} at {@code index}, in time order. Only needed to hand events to code
+   * that expects them; queries read the snapshot directly.
+   */
+  public Event getEvent(int index) {
+    return new Event(getTitle(index), getWhen(index), getAttendees(index));
+  }
+
+  /**
+   * Returns the title of the event at {@code index}, in time order.
+   */
+  public String getTitle(int index) {
+    checkIndex(index);
+    return stringAt(titleOffsets, index);
+  }
+
+  /**
+   * Returns the time of the event at {@code index}, in time order.
+   */
+  public TimeRange getWhen(int index) {
+    checkIndex(index);
+    return TimeRange.fromStartDuration(intAt(starts, index), intAt(durations, index));
+  }
+
+  /**
+   * Returns the attendees of the event at {@code index}, in time order, sorted by name.
+   */
+  public List<String> getAttendees(int index) {
+    checkIndex(index);
+
+    List<String> attendees = new ArrayList<>();
+    for (int i = intAt(attendeeRows, index); i < intAt(attendeeRows, index + 1); i++) {
+      attendees.add(nameOf(intAt(attendeeIds, i)));
+    }
+
+    return attendees;
+  }
+
+  /**
+   * Returns the events attended by any of {@code attendees} that overlap {@code when}, each event
+   * once and ordered by start time. Overlap follows {@link TimeRange#overlaps}. Only the rows of
+   * {@code attendees} are read, and only the conflicting events are built.
+   */
+  public List<Event> getOverlappingEvents(Collection<String> attendees, TimeRange when) {
+    int[] ids = idsOf(attendees);
+    int[] conflicts = new int[0];
+    int size = 0;
+
+    for (int id : ids) {
+      for (int i = intAt(eventRows, id); i < intAt(eventRows, id + 1); i++) {
+        int event = intAt(eventIds, i);
+        int start = intAt(starts, event);
+
+        // Each row is in time order, so no later event can overlap once one starts after when.
+        if (start > when.end()) {
+          break;
+        }
+
+        if (overlaps(start, start + intAt(durations, event), when)) {
+          if (size == conflicts.length) {
+            conflicts = Arrays.copyOf(conflicts, Math.max(8, 2 * size));
+          }
+          conflicts[size++] = event;
+        }
+      }
+    }
+
+    // Events are stored in time order, so sorting their indexes orders them by start.
+    int[] unique = AttendeeDictionary.sortedUnique(conflicts, size);
+    List<Event> events = new ArrayList<>(unique.length);
+    for (int event : unique) {
+      events.add(getEvent(event));
+    }
+
+    return events;
+  }
+
+  /**
+   * Returns the IDs of the attendees in the snapshot, sorted in ascending order without
+   * duplicates. Names that attend no event are skipped.
+   */
+  int[] idsOf(Collection<String> names) {
+    int[] ids = new int[names.size()];
+    int size = 0;
+
+    for (String name : names) {
+      int id = idOf(name);
+      if (id != AttendeeDictionary.UNKNOWN) {
+        ids[size++] = id;
+      }
+    }
+
+    return AttendeeDictionary.sortedUnique(ids, size);
+  }
+
+  /**
+   * Returns the ID of {@code name}, or {@link AttendeeDictionary#UNKNOWN}. The name is found by
+   * binary search over the sorted names, comparing UTF-8 bytes in place rather than decoding each
+   * probed name.
+   */
+  int idOf(String name) {
+    byte[] key = name.getBytes(StandardCharsets.UTF_8);
+    int low = 0;
+    int high = attendeeCount - 1;
+
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = compareName(middle, key);
+
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+
+    return AttendeeDictionary.UNKNOWN;
+  }
+
+  /**
+   * Returns the packed, merged union of the busy intervals of the attendees with {@code ids} in
+   * ascending order. Each attendee's events are stored in time order, so their intervals only
+   * need merging, not sorting.
+   */
+  long[] getBusyIntervals(int[] ids) {
+    List<long[]> intervalLists = new ArrayList<>(ids.length);
+
+    for (int id : ids) {
+      int from = intAt(eventRows, id);
+      int to = intAt(eventRows, id + 1);
+      long[] intervals = new long[to - from];
+
+      for (int i = from; i < to; i++) {
+        int event = intAt(eventIds, i);
+        int start = intAt(starts, event);
+        intervals[i - from] = Intervals.pack(start, start + intAt(durations, event));
+      }
+
+      int size = Intervals.merge(intervals, intervals.length);
+      if (size > 0) {
+        intervalLists.add(size == intervals.length ? intervals : Arrays.copyOf(intervals, size));
+      }
+    }
+
+    return Intervals.union(intervalLists);
+  }
+
+  /**
+   * Returns the union of the per-minute busy masks of the attendees with {@code ids}.
+   */
+  long[] getBusyMask(int[] ids) {
+    long[] mask = MinuteBitmap.create();
+
+    for (int id : ids) {
+      for (int i = intAt(eventRows, id); i < intAt(eventRows, id + 1); i++) {
+        int event = intAt(eventIds, i);
+        int start = intAt(starts, event);
+        MinuteBitmap.set(mask, start, start + intAt(durations, event));
+      }
+    }
+
+    return mask;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= eventCount) {
+      throw new IndexOutOfBoundsException("no event " + index);
+    }
+  }
+
+  /**
+   * Returns whether {@code [start, end)} overlaps {@code when}, the same way that
+   * {@link TimeRange#overlaps} does: one range must contain the start of the other.
+   */
+  private static boolean overlaps(int start, int end, TimeRange when) {
+    return (start <= when.start() && when.start() < end)
+        || (when.start() <= start && start < when.end());
+  }
+
+  private String nameOf(int id) {
+    return stringAt(nameOffsets, id);
+  }
+
+  /**
+   * Compares the UTF-8 bytes of the name with {@code id} to {@code key} as unsigned bytes.
+   */
+  private int compareName(int id, byte[] key) {
+    int from = strings + intAt(nameOffsets, id);
+    int length = strings + intAt(nameOffsets, id + 1) - from;
+
+    for (int i = 0; i < length && i < key.length; i++) {
+      int comparison = Integer.compare(
+          Byte.toUnsignedInt(buffer.get(from + i)), Byte.toUnsignedInt(key[i]));
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+
+    return Integer.compare(length, key.length);
+  }
+
+  private int intAt(int section, int index) {
+    return buffer.getInt(section + index * Integer.BYTES);
+  }
+
+  private String stringAt(int offsetsSection, int index) {
+    int from = intAt(offsetsSection, index);
+    int to = intAt(offsetsSection, index + 1);
+    byte[] bytes = new byte[to - from];
+
+    // Read through a duplicate so that the shared buffer's position never changes.
+    ByteBuffer view = buffer.duplicate();
+    view.position(strings + from);
+    view.get(bytes);
+
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Appends {@code values} to {@code out} as UTF-8 and returns the offset of each, followed by the
+   * offset of the end.
+   */
+  private static int[] appendStrings(List<String> values, ByteArrayOutputStream out) {
+    int[] offsets = new int[values.size() + 1];
+
+    for (int i = 0; i < values.size(); i++) {
+      offsets[i] = out.size();
+      byte[] bytes = values.get(i).getBytes(StandardCharsets.UTF_8);
+      out.write(bytes, 0, bytes.length);
+    }
+    offsets[values.size()] = out.size();
+
+    return offsets;
+  }
+
+  private static int compareBytes(byte[] a, byte[] b) {
+    for (int i = 0; i < a.length && i < b.length; i++) {
+      int comparison = Integer.compare(Byte.toUnsignedInt(a[i]), Byte.toUnsignedInt(b[i]));
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+
+    return Integer.compare(a.length, b.length);
+  }
+
+  private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+    for (int value : values) {
+      out.writeInt(value);
+    }
+  }
+}
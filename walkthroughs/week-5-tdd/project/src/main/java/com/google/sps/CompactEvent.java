@@ -0,0 +1,92 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+
+/**
+ * A read-only {@link Event} whose attendees are IDs from an {@link AttendeeDictionary}. The time
+ * is kept as two {@code int}s and the attendees as a sorted {@code int[]}, so an event costs a
+ * small fixed header plus four bytes per attendee rather than a {@code TimeRange} and a
+ * {@code HashSet}. Create instances with {@link AttendeeDictionary#compact}.
+ */
+public final class CompactEvent {
+  private final String title;
+  private final int start;
+  private final int end;
+  private final int[] attendees;
+
+  /**
+   * @param attendees attendee IDs sorted in ascending order without duplicates. Not copied.
+   */
+  CompactEvent(String title, int start, int end, int[] attendees) {
+    this.title = title;
+    this.start = start;
+    this.end = end;
+    this.attendees = attendees;
+  }
+
+  /**
+   * Returns the human-readable name for this event.
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Returns the {@code TimeRange} for when this event occurs. A new range is created on every call.
+   */
+  public TimeRange getWhen() {
+    return TimeRange.fromStartEnd(start, end, /* inclusive= */ false);
+  }
+
+  /**
+   * Returns a copy of the sorted attendee IDs.
+   */
+  public int[] getAttendeeIds() {
+    return attendees.clone();
+  }
+
+  int start() {
+    return start;
+  }
+
+  int end() {
+    return end;
+  }
+
+  /**
+   * Returns {@code true} if any of {@code ids}, sorted in ascending order, attends this event.
+   */
+  boolean isAttendedByAny(int[] ids) {
+    return AttendeeDictionary.intersects(attendees, ids);
+  }
+
+  @Override
+  public int hashCode() {
+    return title.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof CompactEvent)) {
+      return false;
+    }
+
+    CompactEvent event = (CompactEvent) other;
+    return title.equals(event.title) && start == event.start && end == event.end
+        && Arrays.equals(attendees, event.attendees);
+  }
+}
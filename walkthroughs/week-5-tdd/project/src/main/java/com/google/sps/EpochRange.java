@@ -0,0 +1,120 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * A span of time measured in minutes since the Unix epoch (1970-01-01T00:00Z). Unlike
+ * {@code TimeRange}, which is confined to a single day, an {@code EpochRange} can span any number
+ * of days.
+ */
+public final class EpochRange {
+  public static final long MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  private final long start;
+  private final long end;
+
+  private EpochRange(long start, long end) {
+    if (end < start) {
+      throw new IllegalArgumentException("end cannot come before start");
+    }
+
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Returns the start of the range in epoch minutes.
+   */
+  public long start() {
+    return start;
+  }
+
+  /**
+   * Returns the end of the range in epoch minutes. This ending value is the closing exclusive
+   * bound.
+   */
+  public long end() {
+    return end;
+  }
+
+  /**
+   * Returns the number of minutes between the start and end.
+   */
+  public long duration() {
+    return end - start;
+  }
+
+  /**
+   * Checks if two ranges overlap. Ranges with no duration overlap nothing.
+   */
+  public boolean overlaps(EpochRange other) {
+    return start < other.end && other.start < end;
+  }
+
+  /**
+   * Checks if {@code point} falls within this range.
+   */
+  public boolean contains(long point) {
+    return start <= point && point < end;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof EpochRange
+        && start == ((EpochRange) other).start
+        && end == ((EpochRange) other).end;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(start) ^ Long.hashCode(end);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("EpochRange: [%d, %d)", start, end);
+  }
+
+  /**
+   * Creates an {@code EpochRange} from {@code start} to the exclusive {@code end}.
+   */
+  public static EpochRange fromStartEnd(long start, long end) {
+    return new EpochRange(start, end);
+  }
+
+  /**
+   * Creates an {@code EpochRange} starting at {@code start} with a duration equal to
+   * {@code duration}.
+   */
+  public static EpochRange fromStartDuration(long start, long duration) {
+    return new EpochRange(start, start + duration);
+  }
+
+  /**
+   * Creates an {@code EpochRange} covering {@code days} whole days, starting at the beginning of
+   * {@code firstEpochDay}.
+   */
+  public static EpochRange ofDays(long firstEpochDay, int days) {
+    return fromStartDuration(firstEpochDay * MINUTES_PER_DAY, days * MINUTES_PER_DAY);
+  }
+
+  /**
+   * Creates the {@code EpochRange} for {@code range} on {@code epochDay}.
+   */
+  public static EpochRange fromTimeRange(long epochDay, TimeRange range) {
+    long dayStart = epochDay * MINUTES_PER_DAY;
+    return new EpochRange(dayStart + range.start(), dayStart + range.end());
+  }
+}
@@ -0,0 +1,372 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index from each attendee to their busy intervals, so that a meeting query only has to look at
+ * the calendars of the people it invites. Each attendee's intervals are kept sorted and merged as
+ * events are added and removed. Any number of threads may query the index at once: queries only
+ * read the merged intervals, and the arrays built from them on first read are safe to build
+ * twice. Modifying the index is not synchronized; callers that modify it while it is being queried
+ * must synchronize externally.
+ */
+public final class EventIndex {
+  // Versions are unique across all indexes, so a version identifies both an index and its events.
+  private static final AtomicLong NEXT_VERSION = new AtomicLong();
+
+  private final Set<EventKey> events = new HashSet<>();
+  private final Map<String, AttendeeIntervals> attendeeIntervals = new HashMap<>();
+  private long version = NEXT_VERSION.incrementAndGet();
+
+  /**
+   * Creates an empty index.
+   */
+  public EventIndex() {}
+
+  /**
+   * Creates an index containing {@code events}.
+   *
+   * @param events the events to index. Must be non-null.
+   */
+  public EventIndex(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+
+    // Collect every interval first so that each attendee's intervals are sorted and merged once.
+    for (Event event : events) {
+      if (this.events.add(new EventKey(event))) {
+        long interval = Intervals.pack(event.getWhen());
+
+        for (String attendee : event.getAttendees()) {
+          attendeeIntervals.computeIfAbsent(attendee, key -> new AttendeeIntervals())
+              .append(interval);
+        }
+      }
+    }
+
+    for (AttendeeIntervals intervals : attendeeIntervals.values()) {
+      intervals.sort();
+    }
+  }
+
+  /**
+   * Adds an event to the index.
+   *
+   * @return {@code true} if the event was not already indexed
+   */
+  public boolean add(Event event) {
+    if (!events.add(new EventKey(event))) {
+      return false;
+    }
+
+    long interval = Intervals.pack(event.getWhen());
+
+    for (String attendee : event.getAttendees()) {
+      attendeeIntervals.computeIfAbsent(attendee, key -> new AttendeeIntervals()).add(interval);
+    }
+
+    version = NEXT_VERSION.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Removes an event from the index.
+   *
+   * @return {@code true} if the event was indexed
+   */
+  public boolean remove(Event event) {
+    if (!events.remove(new EventKey(event))) {
+      return false;
+    }
+
+    long interval = Intervals.pack(event.getWhen());
+
+    for (String attendee : event.getAttendees()) {
+      AttendeeIntervals intervals = attendeeIntervals.get(attendee);
+      intervals.remove(interval);
+
+      if (intervals.isEmpty()) {
+        attendeeIntervals.remove(attendee);
+      }
+    }
+
+    version = NEXT_VERSION.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Returns the number of indexed events.
+   */
+  public int size() {
+    return events.size();
+  }
+
+  /**
+   * Returns a number that changes whenever events are added or removed. No two indexes share a
+   * version.
+   */
+  long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the merged busy times of {@code attendee} in ascending order.
+   */
+  public List<TimeRange> getBusyTimes(String attendee) {
+    return Intervals.toTimeRanges(getBusyIntervals(attendee));
+  }
+
+  /**
+   * Returns the packed, merged busy intervals of {@code attendee} in ascending order. The returned
+   * array must not be modified.
+   */
+  long[] getBusyIntervals(String attendee) {
+    AttendeeIntervals intervals = attendeeIntervals.get(attendee);
+    return intervals == null ? Intervals.EMPTY : intervals.merged();
+  }
+
+  /**
+   * Returns the packed, merged union of the busy intervals of all {@code attendees} in ascending
+   * order. The returned array must not be modified.
+   */
+  long[] getBusyIntervals(Collection<String> attendees) {
+    List<long[]> intervalLists = new ArrayList<>(attendees.size());
+
+    for (String attendee : attendees) {
+      long[] intervals = getBusyIntervals(attendee);
+
+      if (intervals.length > 0) {
+        intervalLists.add(intervals);
+      }
+    }
+
+    return Intervals.union(intervalLists);
+  }
+
+  /**
+   * Returns the union of the per-minute busy masks of all {@code attendees}.
+   */
+  long[] getBusyMask(Collection<String> attendees) {
+    long[] mask = MinuteBitmap.create();
+
+    for (String attendee : attendees) {
+      AttendeeIntervals intervals = attendeeIntervals.get(attendee);
+
+      if (intervals != null) {
+        MinuteBitmap.or(mask, intervals.mask());
+      }
+    }
+
+    return mask;
+  }
+
+  /**
+   * Wraps an event with a hash of all of its fields. {@link Event#hashCode} only hashes the title,
+   * and real calendars repeat titles such as "Standup" or "1:1" many times, which would put all of
+   * those events in one hash bucket.
+   */
+  private static final class EventKey {
+    private final Event event;
+    private final int hashCode;
+
+    EventKey(Event event) {
+      this.event = event;
+      this.hashCode = Objects.hash(event.getTitle(), event.getWhen(), event.getAttendees());
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof EventKey && event.equals(((EventKey) other).event);
+    }
+  }
+
+  /**
+   * The busy intervals of a single attendee. {@code intervals} counts every event interval,
+   * duplicates included, so that removing one event keeps the others. {@code merged} maps the
+   * start of each merged busy interval to its end. Adding an interval coalesces it with the merged
+   * intervals it overlaps or touches in {@code O(log n)} amortized; removing one only re-merges
+   * the event intervals inside the merged interval that held it.
+   *
+   * <p>A change only clears the packed array and per-minute mask handed to queries. The first
+   * query that needs one after a change rebuilds it from {@code merged} without sorting, in
+   * {@code O(k)} for an attendee with {@code k} merged intervals, so a burst of changes pays for
+   * one rebuild. Each array is filled before being published through a {@code volatile} field, so
+   * no query sees a partly filled array; queries that race to rebuild the same array build equal
+   * copies, and either may win.
+   */
+  private static final class AttendeeIntervals {
+    private final TreeMap<Long, Integer> intervals = new TreeMap<>();
+    private final TreeMap<Integer, Integer> merged = new TreeMap<>();
+    // Null until the first read after a change.
+    private volatile long[] mergedArray = null;
+    private volatile long[] mask = null;
+
+    void add(long interval) {
+      append(interval);
+      coalesce(Intervals.start(interval), Intervals.end(interval));
+      invalidate();
+    }
+
+    /**
+     * Adds an interval without updating {@code merged}. {@link #sort} must be called before the
+     * intervals are read or changed again.
+     */
+    void append(long interval) {
+      intervals.merge(interval, 1, Integer::sum);
+    }
+
+    /**
+     * Rebuilds {@code merged} from every interval in one ascending pass.
+     */
+    void sort() {
+      merged.clear();
+      putMerged(intervals.keySet());
+      invalidate();
+    }
+
+    void remove(long interval) {
+      Integer count = intervals.get(interval);
+      if (count == null) {
+        return;
+      }
+
+      if (count == 1) {
+        intervals.remove(interval);
+      } else {
+        intervals.put(interval, count - 1);
+      }
+
+      // The removed interval lies inside exactly one merged interval, and only the event intervals
+      // starting inside that merged interval can have contributed to it.
+      Map.Entry<Integer, Integer> block = merged.floorEntry(Intervals.start(interval));
+      merged.remove(block.getKey());
+      putMerged(intervals.subMap(Intervals.pack(block.getKey(), 0), /* fromInclusive= */ true,
+          Intervals.pack(block.getValue(), Integer.MAX_VALUE), /* toInclusive= */ true)
+          .keySet());
+      invalidate();
+    }
+
+    boolean isEmpty() {
+      return intervals.isEmpty();
+    }
+
+    long[] merged() {
+      long[] currentMergedArray = mergedArray;
+
+      if (currentMergedArray == null) {
+        currentMergedArray = new long[merged.size()];
+        int index = 0;
+
+        for (Map.Entry<Integer, Integer> entry : merged.entrySet()) {
+          currentMergedArray[index++] = Intervals.pack(entry.getKey(), entry.getValue());
+        }
+
+        mergedArray = currentMergedArray;
+      }
+
+      return currentMergedArray;
+    }
+
+    long[] mask() {
+      long[] currentMask = mask;
+
+      if (currentMask == null) {
+        currentMask = MinuteBitmap.create();
+
+        for (Map.Entry<Integer, Integer> entry : merged.entrySet()) {
+          MinuteBitmap.set(currentMask, entry.getKey(), entry.getValue());
+        }
+
+        mask = currentMask;
+      }
+
+      return currentMask;
+    }
+
+    /**
+     * Merges {@code [start, end)} with every merged interval it overlaps or touches.
+     */
+    private void coalesce(int start, int end) {
+      Map.Entry<Integer, Integer> before = merged.floorEntry(start);
+      if (before != null && before.getValue() >= start) {
+        start = before.getKey();
+        end = Math.max(end, before.getValue());
+        merged.remove(before.getKey());
+      }
+
+      Map.Entry<Integer, Integer> after = merged.ceilingEntry(start);
+      while (after != null && after.getKey() <= end) {
+        end = Math.max(end, after.getValue());
+        merged.remove(after.getKey());
+        after = merged.ceilingEntry(start);
+      }
+
+      merged.put(start, end);
+    }
+
+    /**
+     * Merges {@code sortedIntervals} the same way as {@link Intervals#merge} and adds the result
+     * to {@code merged}.
+     */
+    private void putMerged(Collection<Long> sortedIntervals) {
+      int mergedStart = -1;
+      int mergedEnd = -1;
+
+      for (long interval : sortedIntervals) {
+        int currStart = Intervals.start(interval);
+        int currEnd = Intervals.end(interval);
+
+        if (mergedStart < 0 || mergedEnd < currStart) {
+          if (mergedStart >= 0) {
+            merged.put(mergedStart, mergedEnd);
+          }
+          mergedStart = currStart;
+          mergedEnd = currEnd;
+        } else if (mergedEnd < currEnd) {
+          mergedEnd = currEnd;
+        }
+      }
+
+      if (mergedStart >= 0) {
+        merged.put(mergedStart, mergedEnd);
+      }
+    }
+
+    /**
+     * Drops the packed array and mask, so that the next read rebuilds them.
+     */
+    private void invalidate() {
+      mergedArray = null;
+      mask = null;
+    }
+  }
+}
@@ -15,15 +15,123 @@
 package com.google.sps;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  *  Holds utility method 'query' to find the available times for a meeting.
  */
 public final class FindMeetingQuery {
+  /**
+   * The ways of computing the attendees' free time.
+   */
+  public enum Algorithm {
+    /**
+     * Sorts and merges the attendees' busy intervals, then takes their complement. Cost grows with
+     * the number of busy intervals.
+     */
+    SORT_AND_MERGE,
+
+    /**
+     * ORs together one bit per busy minute and scans the result for free runs. Cost grows with the
+     * number of attendees but not with the number of events they have. Zero-length events cover no
+     * minutes, so unlike {@link #SORT_AND_MERGE} they do not split a free run at the minute they
+     * happen on; otherwise both algorithms find the same times.
+     */
+    MINUTE_BITMAP
+  }
+
+  /**
+   * The smallest event collection that is scanned with fork/join, and for which the mandatory and
+   * optional attendees' free time is computed concurrently. Below this the cost of handing work to
+   * other threads outweighs the scan itself.
+   */
+  static final int PARALLEL_EVENT_THRESHOLD = 1 << 15;
+
+  /**
+   * The smallest number of mandatory plus optional attendees for which an indexed query computes
+   * the mandatory and optional attendees' free time concurrently.
+   */
+  static final int PARALLEL_ATTENDEE_THRESHOLD = 512;
+
+  // Each fork/join task scans at least this many events, and each worker gets a few tasks so that
+  // uneven ranges still balance.
+  private static final int MIN_EVENTS_PER_TASK = 1 << 12;
+  private static final int TASKS_PER_WORKER = 4;
+
+  private final Algorithm algorithm;
+  private final AvailabilityCache cache;
+  private final ForkJoinPool pool;
+  private final SchedulerMetrics metrics;
+
+  /**
+   * Creates a query that uses {@link Algorithm#SORT_AND_MERGE}.
+   */
+  public FindMeetingQuery() {
+    this(Algorithm.SORT_AND_MERGE);
+  }
+
+  /**
+   * Creates a query that computes free time with {@code algorithm}.
+   */
+  public FindMeetingQuery(Algorithm algorithm) {
+    this(algorithm, /* cache= */ null);
+  }
+
+  /**
+   * Creates a query that computes free time with {@code algorithm}. Queries against an
+   * {@code EventIndex} look up each attendee set's free time in {@code cache} first.
+   *
+   * @param algorithm the way of computing free time. Must be non-null.
+   * @param cache the cache to share between queries, or {@code null} for no caching
+   */
+  public FindMeetingQuery(Algorithm algorithm, AvailabilityCache cache) {
+    this(algorithm, cache, /* pool= */ null);
+  }
+
+  /**
+   * Creates a query that computes free time with {@code algorithm} and splits large queries
+   * across {@code pool}. Queries over at least {@link #PARALLEL_EVENT_THRESHOLD} events, or
+   * indexed queries for at least {@link #PARALLEL_ATTENDEE_THRESHOLD} attendees, compute the
+   * mandatory and optional attendees' free time concurrently; sort-and-merge scans of that many
+   * events are also split with fork/join. Smaller queries run on the calling thread.
+   *
+   * @param algorithm the way of computing free time. Must be non-null.
+   * @param cache the cache to share between queries, or {@code null} for no caching
+   * @param pool the pool to run large queries on, or {@code null} to always run on the calling
+   *     thread
+   */
+  public FindMeetingQuery(Algorithm algorithm, AvailabilityCache cache, ForkJoinPool pool) {
+    this(algorithm, cache, pool, /* metrics= */ null);
+  }
+
+  /**
+   * Creates a query like {@link #FindMeetingQuery(Algorithm, AvailabilityCache, ForkJoinPool)}
+   * that records how long each phase of {@link #query} takes, and how large its inputs are, in
+   * {@code metrics}.
+   *
+   * @param metrics the metrics to record into, or {@code null} to record nothing
+   */
+  public FindMeetingQuery(Algorithm algorithm, AvailabilityCache cache, ForkJoinPool pool,
+      SchedulerMetrics metrics) {
+    if (algorithm == null) {
+      throw new IllegalArgumentException("algorithm cannot be null");
+    }
+
+    this.algorithm = algorithm;
+    this.cache = cache;
+    this.pool = pool;
+    this.metrics = metrics;
+  }
+
   /**
    * Finds the available times in a day in which all meeting participants can attend.
    *
@@ -32,29 +140,720 @@ public final class FindMeetingQuery {
    * @return list of all available meeting times within a single day in ascending order
    */
   public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    long start = startTimer();
+    Collection<TimeRange> times = findMeetingTimes(events, request);
+    lap(SchedulerMetrics.Phase.QUERY, start);
+    return times;
+  }
+
+  private Collection<TimeRange> findMeetingTimes(
+      Collection<Event> events, MeetingRequest request) {
     if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
       return Collections.emptyList();
     }
 
-    List<TimeRange> availableOptionalIntervals =
-        getAvailableIntervals(events, request.getOptionalAttendees(), request.getDuration());
+    // Only need to search for optional intervals if there are no mandatory attendees.
+    if (request.getAttendees().isEmpty()) {
+      return Intervals.toTimeRanges(
+          getAvailableIntervals(events, request.getOptionalAttendees(), request.getDuration()));
+    }
+
+    long[] availableOptionalIntervals;
+    long[] availableMandatoryIntervals;
+
+    if (isParallel(events)) {
+      ForkJoinTask<long[]> optionalTask = pool.submit(() ->
+          getAvailableIntervals(events, request.getOptionalAttendees(), request.getDuration()));
+      availableMandatoryIntervals =
+          getAvailableIntervals(events, request.getAttendees(), request.getDuration());
+      availableOptionalIntervals = optionalTask.join();
+    } else {
+      availableOptionalIntervals =
+          getAvailableIntervals(events, request.getOptionalAttendees(), request.getDuration());
+      availableMandatoryIntervals =
+          getAvailableIntervals(events, request.getAttendees(), request.getDuration());
+    }
+
+    return Intervals.toTimeRanges(getMeetingIntervals(
+        availableMandatoryIntervals, availableOptionalIntervals, request.getDuration()));
+  }
+
+  /**
+   * Finds the available times in a day in which all meeting participants can attend, matching
+   * attendees by their interned IDs instead of by name.
+   *
+   * @param events the compact events occurring in a single day
+   * @param dictionary the dictionary that interned the events' attendees
+   * @param request the meeting that needs to be accommodated - can't be longer than a day
+   * @return list of all available meeting times within a single day in ascending order
+   */
+  public Collection<TimeRange> query(
+      Collection<CompactEvent> events, AttendeeDictionary dictionary, MeetingRequest request) {
+    long start = startTimer();
+    Collection<TimeRange> times = findMeetingTimes(events, dictionary, request);
+    lap(SchedulerMetrics.Phase.QUERY, start);
+    return times;
+  }
+
+  private Collection<TimeRange> findMeetingTimes(
+      Collection<CompactEvent> events, AttendeeDictionary dictionary, MeetingRequest request) {
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return Collections.emptyList();
+    }
+
+    long[] availableOptionalIntervals = getAvailableIntervals(
+        events, dictionary.idsOf(request.getOptionalAttendees()), request.getDuration());
+
+    // Only need to search for optional intervals if there are no mandatory attendees.
+    if (request.getAttendees().isEmpty()) {
+      return Intervals.toTimeRanges(availableOptionalIntervals);
+    }
+
+    long[] availableMandatoryIntervals = getAvailableIntervals(
+        events, dictionary.idsOf(request.getAttendees()), request.getDuration());
+
+    return Intervals.toTimeRanges(getMeetingIntervals(
+        availableMandatoryIntervals, availableOptionalIntervals, request.getDuration()));
+  }
+
+  /**
+   * Finds the available times in a day in which all meeting participants can attend, reading the
+   * events straight from a snapshot. Only the participants' rows of the snapshot are read, and no
+   * {@code Event} is created.
+   *
+   * @param snapshot the snapshot of the events occurring in a single day
+   * @param request the meeting that needs to be accommodated - can't be longer than a day
+   * @return list of all available meeting times within a single day in ascending order
+   */
+  public Collection<TimeRange> query(CalendarSnapshot snapshot, MeetingRequest request) {
+    long start = startTimer();
+    Collection<TimeRange> times = findMeetingTimes(snapshot, request);
+    lap(SchedulerMetrics.Phase.QUERY, start);
+    return times;
+  }
+
+  private Collection<TimeRange> findMeetingTimes(
+      CalendarSnapshot snapshot, MeetingRequest request) {
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return Collections.emptyList();
+    }
+
+    long[] availableOptionalIntervals = getAvailableIntervals(
+        snapshot, snapshot.idsOf(request.getOptionalAttendees()), request.getDuration());
+
+    // Only need to search for optional intervals if there are no mandatory attendees.
+    if (request.getAttendees().isEmpty()) {
+      return Intervals.toTimeRanges(availableOptionalIntervals);
+    }
+
+    long[] availableMandatoryIntervals = getAvailableIntervals(
+        snapshot, snapshot.idsOf(request.getAttendees()), request.getDuration());
+
+    return Intervals.toTimeRanges(getMeetingIntervals(
+        availableMandatoryIntervals, availableOptionalIntervals, request.getDuration()));
+  }
+
+  /**
+   * Finds the available times in a day in which all meeting participants can attend, reading the
+   * participants' busy times from an index so that only their calendars are visited.
+   *
+   * @param index the index of the events occurring in a single day
+   * @param request the meeting that needs to be accommodated - can't be longer than a day
+   * @return list of all available meeting times within a single day in ascending order
+   */
+  public Collection<TimeRange> query(EventIndex index, MeetingRequest request) {
+    long start = startTimer();
+    Collection<TimeRange> times = findMeetingTimes(index, request);
+    lap(SchedulerMetrics.Phase.QUERY, start);
+    return times;
+  }
+
+  private Collection<TimeRange> findMeetingTimes(EventIndex index, MeetingRequest request) {
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return Collections.emptyList();
+    }
 
     // Only need to search for optional intervals if there are no mandatory attendees.
     if (request.getAttendees().isEmpty()) {
-      return availableOptionalIntervals;
+      return Intervals.toTimeRanges(
+          getAvailableIntervals(index, request.getOptionalAttendees(), request.getDuration()));
+    }
+
+    long[] availableOptionalIntervals;
+    long[] availableMandatoryIntervals;
+
+    if (pool != null && request.getAttendees().size() + request.getOptionalAttendees().size()
+        >= PARALLEL_ATTENDEE_THRESHOLD) {
+      ForkJoinTask<long[]> optionalTask = pool.submit(() ->
+          getAvailableIntervals(index, request.getOptionalAttendees(), request.getDuration()));
+      availableMandatoryIntervals =
+          getAvailableIntervals(index, request.getAttendees(), request.getDuration());
+      availableOptionalIntervals = optionalTask.join();
+    } else {
+      availableOptionalIntervals =
+          getAvailableIntervals(index, request.getOptionalAttendees(), request.getDuration());
+      availableMandatoryIntervals =
+          getAvailableIntervals(index, request.getAttendees(), request.getDuration());
+    }
+
+    return Intervals.toTimeRanges(getMeetingIntervals(
+        availableMandatoryIntervals, availableOptionalIntervals, request.getDuration()));
+  }
+
+  /**
+   * Finds the times in a day at which all meeting participants can attend and a room that meets
+   * the request's requirements is free for the whole meeting, together with that room. A request
+   * without room requirements can be held in any room. Each time is tagged with its room because
+   * different rooms may be free at overlapping times, and a meeting cannot move between rooms;
+   * the times returned for any one room never overlap.
+   *
+   * @param events the events occurring in a single day, including the rooms' bookings
+   * @param rooms the rooms the meeting can be held in
+   * @param request the meeting that needs to be accommodated - can't be longer than a day
+   * @return the available times in every matching room, ordered by start and then from the
+   *     smallest room to the largest
+   */
+  public List<RoomTimeRange> queryRooms(
+      Collection<Event> events, RoomDirectory rooms, MeetingRequest request) {
+    if (rooms == null) {
+      throw new IllegalArgumentException("rooms cannot be null");
+    }
+
+    long start = startTimer();
+    List<Room> matchingRooms =
+        rooms.getMatchingRooms(request.getRoomCapacity(), request.getRequiredResources());
+
+    Set<String> attendees = new HashSet<>(request.getAttendees());
+    attendees.addAll(request.getOptionalAttendees());
+    for (Room room : matchingRooms) {
+      attendees.add(room.getName());
+    }
+
+    List<RoomTimeRange> times =
+        findRoomTimes(indexForAttendees(events, attendees), matchingRooms, request);
+    lap(SchedulerMetrics.Phase.QUERY, start);
+    return times;
+  }
+
+  /**
+   * Finds the times in a day at which all meeting participants can attend and a room that meets
+   * the request's requirements is free for the whole meeting, together with that room. Each
+   * matching room's merged busy intervals are read from the index, so checking hundreds of rooms
+   * costs one complement and one intersection per room rather than one query per room.
+   *
+   * @param index the index of the events occurring in a single day, including the rooms'
+   *     bookings
+   * @param rooms the rooms the meeting can be held in
+   * @param request the meeting that needs to be accommodated - can't be longer than a day
+   * @return the available times in every matching room, ordered by start and then from the
+   *     smallest room to the largest
+   */
+  public List<RoomTimeRange> queryRooms(
+      EventIndex index, RoomDirectory rooms, MeetingRequest request) {
+    if (rooms == null) {
+      throw new IllegalArgumentException("rooms cannot be null");
+    }
+
+    long start = startTimer();
+    List<RoomTimeRange> times = findRoomTimes(index,
+        rooms.getMatchingRooms(request.getRoomCapacity(), request.getRequiredResources()),
+        request);
+    lap(SchedulerMetrics.Phase.QUERY, start);
+    return times;
+  }
+
+  private List<RoomTimeRange> findRoomTimes(
+      EventIndex index, List<Room> matchingRooms, MeetingRequest request) {
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration() || matchingRooms.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    long[] availableOptionalIntervals;
+    long[] availableMandatoryIntervals;
+
+    // Only the optional attendees count if there are no mandatory attendees.
+    if (request.getAttendees().isEmpty()) {
+      availableOptionalIntervals =
+          getAvailableIntervals(index, request.getOptionalAttendees(), request.getDuration());
+      availableMandatoryIntervals = availableOptionalIntervals;
+    } else if (pool != null && request.getAttendees().size()
+        + request.getOptionalAttendees().size() >= PARALLEL_ATTENDEE_THRESHOLD) {
+      ForkJoinTask<long[]> optionalTask = pool.submit(() ->
+          getAvailableIntervals(index, request.getOptionalAttendees(), request.getDuration()));
+      availableMandatoryIntervals =
+          getAvailableIntervals(index, request.getAttendees(), request.getDuration());
+      availableOptionalIntervals = optionalTask.join();
+    } else {
+      availableOptionalIntervals =
+          getAvailableIntervals(index, request.getOptionalAttendees(), request.getDuration());
+      availableMandatoryIntervals =
+          getAvailableIntervals(index, request.getAttendees(), request.getDuration());
     }
 
-    List<TimeRange> availableMandatoryIntervals =
-        getAvailableIntervals(events, request.getAttendees(), request.getDuration());
+    List<long[]> availableRoomIntervals = new ArrayList<>(matchingRooms.size());
+    for (Room room : matchingRooms) {
+      availableRoomIntervals.add(getAvailableIntervals(
+          index, Collections.singleton(room.getName()), request.getDuration()));
+    }
 
-    List<TimeRange> availableIntervals = getMergedIntervals(
+    long start = startTimer();
+    long[] availableEveryoneIntervals = Intervals.intersect(
         availableMandatoryIntervals, availableOptionalIntervals, request.getDuration());
+    List<RoomTimeRange> times = getRoomTimes(
+        matchingRooms, availableRoomIntervals, availableEveryoneIntervals, request.getDuration());
+
+    // As in query(), optional attendees only count if some time suits them too.
+    if (times.isEmpty()) {
+      times = getRoomTimes(matchingRooms, availableRoomIntervals, availableMandatoryIntervals,
+          request.getDuration());
+    }
+    lap(SchedulerMetrics.Phase.INTERSECT, start);
+
+    start = startTimer();
+    // The sort is stable, so rooms that are free from the same time stay smallest first.
+    times.sort(Comparator.comparingInt(time -> time.getWhen().start()));
+    lap(SchedulerMetrics.Phase.SORT, start);
+    return times;
+  }
+
+  /**
+   * Intersects each room's available intervals with the attendees' available intervals.
+   */
+  private static List<RoomTimeRange> getRoomTimes(List<Room> rooms,
+      List<long[]> availableRoomIntervals, long[] availableIntervals, long meetingDurationMinutes) {
+    List<RoomTimeRange> times = new ArrayList<>();
+
+    for (int i = 0; i < rooms.size(); i++) {
+      long[] intervals = Intervals.intersect(
+          availableIntervals, availableRoomIntervals.get(i), meetingDurationMinutes);
+
+      for (TimeRange when : Intervals.toTimeRanges(intervals)) {
+        times.add(new RoomTimeRange(rooms.get(i), when));
+      }
+    }
+
+    return times;
+  }
+
+  /**
+   * Answers several meeting requests against the same events. The events are indexed once, so
+   * every attendee's busy intervals are sorted and merged once and shared by all the requests.
+   *
+   * @param events the events occurring in a single day
+   * @param requests the meetings that need to be accommodated
+   * @return the answer to each request, in the same order as {@code requests}
+   */
+  public List<Collection<TimeRange>> queryAll(
+      Collection<Event> events, List<MeetingRequest> requests) {
+    return queryAll(indexForRequests(events, requests), requests);
+  }
+
+  /**
+   * Answers several meeting requests against the same events, spreading the requests over
+   * {@code pool}.
+   *
+   * @param events the events occurring in a single day
+   * @param requests the meetings that need to be accommodated
+   * @param pool the pool that answers the requests
+   * @return the answer to each request, in the same order as {@code requests}
+   */
+  public List<Collection<TimeRange>> queryAll(
+      Collection<Event> events, List<MeetingRequest> requests, ForkJoinPool pool) {
+    return queryAll(indexForRequests(events, requests), requests, pool);
+  }
+
+  /**
+   * Answers several meeting requests against the same index.
+   *
+   * @param index the index of the events occurring in a single day
+   * @param requests the meetings that need to be accommodated
+   * @return the answer to each request, in the same order as {@code requests}
+   */
+  public List<Collection<TimeRange>> queryAll(EventIndex index, List<MeetingRequest> requests) {
+    List<Collection<TimeRange>> answers = new ArrayList<>(requests.size());
+
+    for (MeetingRequest request : requests) {
+      answers.add(query(index, request));
+    }
+
+    return answers;
+  }
+
+  /**
+   * Answers several meeting requests against the same index, spreading the requests over
+   * {@code pool}. The index must not be modified until this method returns.
+   *
+   * @param index the index of the events occurring in a single day
+   * @param requests the meetings that need to be accommodated
+   * @param pool the pool that answers the requests
+   * @return the answer to each request, in the same order as {@code requests}
+   */
+  public List<Collection<TimeRange>> queryAll(
+      EventIndex index, List<MeetingRequest> requests, ForkJoinPool pool) {
+    List<ForkJoinTask<Collection<TimeRange>>> tasks = new ArrayList<>(requests.size());
+
+    for (MeetingRequest request : requests) {
+      tasks.add(pool.submit(() -> query(index, request)));
+    }
+
+    List<Collection<TimeRange>> answers = new ArrayList<>(requests.size());
+    for (ForkJoinTask<Collection<TimeRange>> task : tasks) {
+      answers.add(task.join());
+    }
+
+    return answers;
+  }
+
+  /**
+   * Finds the available times within {@code window} in which all meeting participants can attend.
+   * Events may span several days and the meeting may be longer than a day. The events are read in
+   * a single pass that collects the busy intervals of the mandatory and optional attendees
+   * together.
+   *
+   * @param events the events to consider - the parts outside of {@code window} are ignored
+   * @param request the meeting that needs to be accommodated - can't be longer than the window
+   * @param window the span of time to search - at most {@code Integer.MAX_VALUE} minutes long
+   * @return list of all available meeting times within {@code window} in ascending order
+   */
+  public List<EpochRange> query(
+      Iterable<EpochEvent> events, MeetingRequest request, EpochRange window) {
+    return query(events, Collections.emptyList(), request, window);
+  }
+
+  /**
+   * Finds the available times within {@code window} in which all meeting participants can attend,
+   * taking recurring events into account. Only the occurrences that overlap the window are
+   * computed, one at a time, and they are merged with the one-off events' busy intervals as they
+   * are generated, so no occurrence is stored as an event and none needs sorting.
+   *
+   * @param events the one-off events to consider - the parts outside of {@code window} are
+   *     ignored
+   * @param recurringEvents the recurring events to consider
+   * @param request the meeting that needs to be accommodated - can't be longer than the window
+   * @param window the span of time to search - at most {@code Integer.MAX_VALUE} minutes long
+   * @return list of all available meeting times within {@code window} in ascending order
+   */
+  public List<EpochRange> query(Iterable<EpochEvent> events,
+      Iterable<RecurringEvent> recurringEvents, MeetingRequest request, EpochRange window) {
+    if (window.duration() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("window cannot be longer than Integer.MAX_VALUE minutes");
+    }
+
+    long start = startTimer();
+    List<EpochRange> times = findMeetingTimes(events, recurringEvents, request, window);
+    lap(SchedulerMetrics.Phase.QUERY, start);
+    return times;
+  }
+
+  private List<EpochRange> findMeetingTimes(Iterable<EpochEvent> events,
+      Iterable<RecurringEvent> recurringEvents, MeetingRequest request, EpochRange window) {
+    if (request.getDuration() > window.duration()) {
+      return Collections.emptyList();
+    }
+
+    // Busy intervals are kept as minute offsets from the start of the window, so the single-day
+    // interval operations apply unchanged.
+    Intervals.Buffer mandatoryBusyIntervals = new Intervals.Buffer();
+    Intervals.Buffer optionalBusyIntervals = new Intervals.Buffer();
+    int eventCount = 0;
+    long phaseStart = startTimer();
+
+    for (EpochEvent event : events) {
+      EpochRange when = event.getWhen();
+      eventCount++;
+
+      if (!when.overlaps(window)) {
+        continue;
+      }
+
+      int start = (int) (Math.max(when.start(), window.start()) - window.start());
+      int end = (int) (Math.min(when.end(), window.end()) - window.start());
+
+      if (!Collections.disjoint(event.getAttendees(), request.getAttendees())) {
+        mandatoryBusyIntervals.add(start, end);
+      }
+
+      if (!Collections.disjoint(event.getAttendees(), request.getOptionalAttendees())) {
+        optionalBusyIntervals.add(start, end);
+      }
+    }
+
+    List<RecurringEvent.Occurrences> mandatoryOccurrences = new ArrayList<>();
+    List<RecurringEvent.Occurrences> optionalOccurrences = new ArrayList<>();
+
+    for (RecurringEvent event : recurringEvents) {
+      if (!Collections.disjoint(event.getAttendees(), request.getAttendees())) {
+        mandatoryOccurrences.add(event.occurrencesIn(window));
+      }
+
+      if (!Collections.disjoint(event.getAttendees(), request.getOptionalAttendees())) {
+        optionalOccurrences.add(event.occurrencesIn(window));
+      }
+    }
+    lap(SchedulerMetrics.Phase.FILTER, phaseStart);
+    recordSize(SchedulerMetrics.Size.EVENTS, eventCount);
+
+    int windowLength = (int) window.duration();
+    long[] availableOptionalIntervals = complement(
+        optionalBusyIntervals, optionalOccurrences, windowLength, request.getDuration());
+
+    // Only need to search for optional intervals if there are no mandatory attendees.
+    if (request.getAttendees().isEmpty()) {
+      return toEpochRanges(availableOptionalIntervals, window.start());
+    }
+
+    long[] availableMandatoryIntervals = complement(
+        mandatoryBusyIntervals, mandatoryOccurrences, windowLength, request.getDuration());
+
+    return toEpochRanges(getMeetingIntervals(availableMandatoryIntervals,
+        availableOptionalIntervals, request.getDuration()), window.start());
+  }
+
+  /**
+   * Finds the times in a day in which all mandatory attendees and as many optional attendees as
+   * possible can attend. Unlike {@link #query}, optional attendees are not all-or-nothing: if no
+   * time suits all of them, the times that suit the largest number of them are returned.
+   *
+   * @param events the events occurring in a single day
+   * @param request the meeting that needs to be accommodated - can't be longer than a day
+   * @return list of meeting times in ascending order that the most optional attendees can attend
+   */
+  public Collection<TimeRange> queryMaximizingOptionalAttendees(
+      Collection<Event> events, MeetingRequest request) {
+    long start = startTimer();
+    Collection<TimeRange> times = findMaximalAttendanceTimes(
+        indexForRequests(events, Collections.singletonList(request)), request);
+    lap(SchedulerMetrics.Phase.QUERY, start);
+    return times;
+  }
+
+  /**
+   * Finds the times in a day in which all mandatory attendees and as many optional attendees as
+   * possible can attend, reading busy times from an index.
+   *
+   * @param index the index of the events occurring in a single day
+   * @param request the meeting that needs to be accommodated - can't be longer than a day
+   * @return list of meeting times in ascending order that the most optional attendees can attend
+   */
+  public Collection<TimeRange> queryMaximizingOptionalAttendees(
+      EventIndex index, MeetingRequest request) {
+    long start = startTimer();
+    Collection<TimeRange> times = findMaximalAttendanceTimes(index, request);
+    lap(SchedulerMetrics.Phase.QUERY, start);
+    return times;
+  }
+
+  private Collection<TimeRange> findMaximalAttendanceTimes(
+      EventIndex index, MeetingRequest request) {
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return Collections.emptyList();
+    }
+
+    long[] availableMandatoryIntervals =
+        getAvailableIntervals(index, request.getAttendees(), request.getDuration());
+
+    List<long[]> optionalBusyIntervals = new ArrayList<>(request.getOptionalAttendees().size());
+    for (String attendee : request.getOptionalAttendees()) {
+      optionalBusyIntervals.add(index.getBusyIntervals(attendee));
+    }
+
+    long start = startTimer();
+    long[] availableIntervals = AvailabilitySweep.maximizeAttendance(
+        availableMandatoryIntervals, optionalBusyIntervals, request.getDuration());
+    lap(SchedulerMetrics.Phase.SWEEP, start);
+    return Intervals.toTimeRanges(availableIntervals);
+  }
+
+  /**
+   * Finds the times in a day at which at least {@code quorum} of the {@code invitees} are free for
+   * the whole meeting.
+   *
+   * @param events the events occurring in a single day
+   * @param invitees the people to count. Duplicates are counted once.
+   * @param quorum the smallest number of invitees that must be able to attend
+   * @param duration the meeting duration in minutes
+   * @return the maximal meeting times in ascending order at which the quorum can attend
+   */
+  public Collection<TimeRange> queryQuorum(
+      Collection<Event> events, Collection<String> invitees, int quorum, long duration) {
+    if (quorum < 0) {
+      throw new IllegalArgumentException("quorum cannot be negative");
+    }
+
+    long start = startTimer();
+    Collection<TimeRange> times = findQuorumTimes(
+        indexForAttendees(events, new HashSet<>(invitees)), invitees, quorum, duration);
+    lap(SchedulerMetrics.Phase.QUERY, start);
+    return times;
+  }
+
+  /**
+   * Finds the times in a day at which at least {@code quorum} of the {@code invitees} are free for
+   * the whole meeting, reading busy times from an index. A single sweep over the start and end
+   * points of every invitee's busy intervals counts how many invitees are busy for each possible
+   * start, so the cost is {@code O(n log n)} in the number of busy intervals however many subsets
+   * of invitees would satisfy the quorum.
+   *
+   * @param index the index of the events occurring in a single day
+   * @param invitees the people to count. Duplicates are counted once.
+   * @param quorum the smallest number of invitees that must be able to attend
+   * @param duration the meeting duration in minutes
+   * @return the maximal meeting times in ascending order at which the quorum can attend
+   */
+  public Collection<TimeRange> queryQuorum(
+      EventIndex index, Collection<String> invitees, int quorum, long duration) {
+    if (quorum < 0) {
+      throw new IllegalArgumentException("quorum cannot be negative");
+    }
+
+    long start = startTimer();
+    Collection<TimeRange> times = findQuorumTimes(index, invitees, quorum, duration);
+    lap(SchedulerMetrics.Phase.QUERY, start);
+    return times;
+  }
+
+  private Collection<TimeRange> findQuorumTimes(
+      EventIndex index, Collection<String> invitees, int quorum, long duration) {
+    Set<String> uniqueInvitees = new HashSet<>(invitees);
+    int startLimit = (int) (TimeRange.WHOLE_DAY.duration() - duration + 1);
+    if (quorum > uniqueInvitees.size() || startLimit <= 0) {
+      return Collections.emptyList();
+    }
+
+    List<long[]> busyIntervals = new ArrayList<>(uniqueInvitees.size());
+    for (String invitee : uniqueInvitees) {
+      busyIntervals.add(index.getBusyIntervals(invitee));
+    }
+
+    long start = startTimer();
+    long[] quorumStarts = AvailabilitySweep.countConflicts(busyIntervals, duration, startLimit)
+        .withConflictsAtMost(uniqueInvitees.size() - quorum);
+    long[] quorumIntervals = AvailabilitySweep.toMeetingIntervals(quorumStarts, duration);
+    lap(SchedulerMetrics.Phase.SWEEP, start);
+
+    return Intervals.toTimeRanges(quorumIntervals);
+  }
+
+  /**
+   * Finds the {@code k} best times in a day for a meeting that all mandatory attendees can attend,
+   * ranked by {@code scorer}. Only meetings starting on a multiple of {@code stepMinutes} are
+   * considered, and optional attendees only affect the ranking.
+   *
+   * @param events the events occurring in a single day
+   * @param request the meeting that needs to be accommodated - can't be longer than a day
+   * @param k the maximum number of times to return
+   * @param stepMinutes the spacing of candidate start times - 1 considers every minute
+   * @param scorer ranks the candidate times
+   * @return up to {@code k} meeting times of the requested duration, best first
+   */
+  public List<TimeRange> queryBest(Collection<Event> events, MeetingRequest request, int k,
+      int stepMinutes, SlotScorer scorer) {
+    checkBestArguments(k, stepMinutes);
+
+    long start = startTimer();
+    List<TimeRange> times = findBestTimes(indexForRequests(events,
+        Collections.singletonList(request)), request, k, stepMinutes, scorer);
+    lap(SchedulerMetrics.Phase.QUERY, start);
+    return times;
+  }
+
+  /**
+   * Finds the {@code k} best times in a day for a meeting that all mandatory attendees can attend,
+   * reading busy times from an index. Candidates are scored as they are generated and only the
+   * best {@code k} are kept, so the full list of candidates is never built or sorted.
+   *
+   * @param index the index of the events occurring in a single day
+   * @param request the meeting that needs to be accommodated - can't be longer than a day
+   * @param k the maximum number of times to return
+   * @param stepMinutes the spacing of candidate start times - 1 considers every minute
+   * @param scorer ranks the candidate times
+   * @return up to {@code k} meeting times of the requested duration, best first
+   */
+  public List<TimeRange> queryBest(
+      EventIndex index, MeetingRequest request, int k, int stepMinutes, SlotScorer scorer) {
+    checkBestArguments(k, stepMinutes);
+
+    long start = startTimer();
+    List<TimeRange> times = findBestTimes(index, request, k, stepMinutes, scorer);
+    lap(SchedulerMetrics.Phase.QUERY, start);
+    return times;
+  }
+
+  private static void checkBestArguments(int k, int stepMinutes) {
+    if (k < 0) {
+      throw new IllegalArgumentException("k cannot be negative");
+    }
+
+    if (stepMinutes <= 0) {
+      throw new IllegalArgumentException("stepMinutes must be positive");
+    }
+  }
+
+  private List<TimeRange> findBestTimes(
+      EventIndex index, MeetingRequest request, int k, int stepMinutes, SlotScorer scorer) {
+    long duration = request.getDuration();
+    int startLimit = (int) (TimeRange.WHOLE_DAY.duration() - duration + 1);
+    if (k == 0 || startLimit <= 0) {
+      return Collections.emptyList();
+    }
+
+    long[] availableMandatoryIntervals =
+        getAvailableIntervals(index, request.getAttendees(), duration);
+
+    List<long[]> optionalBusyIntervals = new ArrayList<>(request.getOptionalAttendees().size());
+    for (String attendee : request.getOptionalAttendees()) {
+      optionalBusyIntervals.add(index.getBusyIntervals(attendee));
+    }
+
+    long phaseStart = startTimer();
+    AvailabilitySweep.Segments candidates =
+        AvailabilitySweep.countConflicts(optionalBusyIntervals, duration, startLimit)
+            .restrictTo(AvailabilitySweep.toStartIntervals(availableMandatoryIntervals, duration));
+    phaseStart = lap(SchedulerMetrics.Phase.SWEEP, phaseStart);
+
+    TopSlots best = new TopSlots(k);
+    for (int i = 0; i < candidates.size; i++) {
+      int segmentEnd = Intervals.end(candidates.intervals[i]);
+      int segmentStart = Intervals.start(candidates.intervals[i]);
+      int firstStart = (segmentStart + stepMinutes - 1) / stepMinutes * stepMinutes;
+
+      for (int start = firstStart; start < segmentEnd; start += stepMinutes) {
+        int end = (int) (start + duration);
+        best.offer(start, scorer.score(start, end, candidates.conflicts[i]));
+      }
+    }
+
+    int[] bestStarts = best.drainBestFirst();
+    lap(SchedulerMetrics.Phase.RANK, phaseStart);
+    List<TimeRange> ranges = new ArrayList<>(bestStarts.length);
+    for (int start : bestStarts) {
+      ranges.add(TimeRange.fromStartDuration(start, (int) duration));
+    }
+
+    return ranges;
+  }
+
+  /**
+   * Chooses the meeting times from the mandatory and optional attendees' availability.
+   *
+   * @param availableMandatoryIntervals packed intervals in which all mandatory attendees are free
+   * @param availableOptionalIntervals packed intervals in which all optional attendees are free
+   * @param meetingDurationMinutes the minimum meeting duration
+   * @return the packed times in which everyone can attend, or the mandatory attendees' times if
+   *     there are none
+   */
+  private long[] getMeetingIntervals(long[] availableMandatoryIntervals,
+      long[] availableOptionalIntervals, long meetingDurationMinutes) {
+    long start = startTimer();
+    long[] availableIntervals = Intervals.intersect(
+        availableMandatoryIntervals, availableOptionalIntervals, meetingDurationMinutes);
+    lap(SchedulerMetrics.Phase.INTERSECT, start);
 
     /*
      * If there is no interval intersection between mandatory and optional attendees then only
      * mandatory intervals are relevant.
      */
-    if (availableIntervals.isEmpty()) {
+    if (availableIntervals.length == 0) {
       return availableMandatoryIntervals;
     }
 
@@ -63,128 +862,350 @@ public final class FindMeetingQuery {
 
   /**
    * Finds the meeting times that have no conflict between the attendees and the scheduled events.
+   * Busy and free intervals are kept as packed {@code long}s (see {@link Intervals}) or as
+   * per-minute masks (see {@link MinuteBitmap}) so that no intermediate {@code TimeRange} objects
+   * are created.
    *
    * @param events list of events occurring in one day
    * @param attendees list of unique attendees required in the meeting
    * @param meetingDurationMinutes the minimum meeting duration
-   * @return list with all non-overlapping available times for the meeting sorted in ascending order
+   * @return packed non-overlapping available intervals sorted in ascending order
    */
-  private static List<TimeRange> getAvailableIntervals(
-      Collection<Event> events, Collection<String> attendees, Long meetingDurationMinutes) {
-    List<TimeRange> busyIntervals = new ArrayList<>();
+  private long[] getAvailableIntervals(
+      Collection<Event> events, Collection<String> attendees, long meetingDurationMinutes) {
+    recordSize(SchedulerMetrics.Size.EVENTS, events.size());
+    long start = startTimer();
+
+    if (algorithm == Algorithm.MINUTE_BITMAP) {
+      long[] busyMask = MinuteBitmap.create();
+      int busyCount = 0;
+
+      for (Event event : events) {
+        if (!Collections.disjoint(event.getAttendees(), attendees)) {
+          MinuteBitmap.set(busyMask, event.getWhen().start(), event.getWhen().end());
+          busyCount++;
+        }
+      }
+      start = lap(SchedulerMetrics.Phase.FILTER, start);
+      recordSize(SchedulerMetrics.Size.BUSY_INTERVALS, busyCount);
+
+      long[] freeIntervals = MinuteBitmap.freeIntervals(busyMask, meetingDurationMinutes);
+      lap(SchedulerMetrics.Phase.COMPLEMENT, start);
+      recordSize(SchedulerMetrics.Size.FREE_INTERVALS, freeIntervals.length);
+      return freeIntervals;
+    }
+
+    if (isParallel(events)) {
+      List<Event> eventList = (List<Event>) events;
+      int chunkSize = Math.max(MIN_EVENTS_PER_TASK,
+          eventList.size() / (pool.getParallelism() * TASKS_PER_WORKER));
+      long[] busyIntervals = pool.invoke(new ParallelBusyIntervals(
+          eventList, 0, eventList.size(), attendees, chunkSize));
+      // The tasks filter, sort and merge together, so their time is recorded as merging and only
+      // the merged busy intervals are counted.
+      start = lap(SchedulerMetrics.Phase.MERGE, start);
+      recordSize(SchedulerMetrics.Size.BUSY_INTERVALS, busyIntervals.length);
+
+      long[] freeIntervals = Intervals.complement(busyIntervals, busyIntervals.length,
+          TimeRange.START_OF_DAY, TimeRange.END_OF_DAY + 1, meetingDurationMinutes);
+      lap(SchedulerMetrics.Phase.COMPLEMENT, start);
+      recordSize(SchedulerMetrics.Size.FREE_INTERVALS, freeIntervals.length);
+      return freeIntervals;
+    }
+
+    // Grow with the attendees' events rather than allocating room for every event up front.
+    Intervals.Buffer busyIntervals = new Intervals.Buffer();
 
     for (Event event : events) {
       if (!Collections.disjoint(event.getAttendees(), attendees)) {
-        busyIntervals.add(event.getWhen());
+        busyIntervals.add(event.getWhen().start(), event.getWhen().end());
       }
     }
+    start = lap(SchedulerMetrics.Phase.FILTER, start);
+    recordSize(SchedulerMetrics.Size.BUSY_INTERVALS, busyIntervals.size());
+
+    busyIntervals.sort();
+    start = lap(SchedulerMetrics.Phase.SORT, start);
+
+    busyIntervals.merge();
+    start = lap(SchedulerMetrics.Phase.MERGE, start);
 
-    if (busyIntervals.isEmpty()) {
-      return Arrays.asList(TimeRange.WHOLE_DAY);
+    long[] freeIntervals = busyIntervals.complement(
+        TimeRange.START_OF_DAY, TimeRange.END_OF_DAY + 1, meetingDurationMinutes);
+    lap(SchedulerMetrics.Phase.COMPLEMENT, start);
+    recordSize(SchedulerMetrics.Size.FREE_INTERVALS, freeIntervals.length);
+    return freeIntervals;
+  }
+
+  /**
+   * Same as {@link #getAvailableIntervals(Collection, Collection, long)} for compact events.
+   *
+   * @param attendeeIds interned IDs of the attendees sorted in ascending order
+   */
+  private long[] getAvailableIntervals(
+      Collection<CompactEvent> events, int[] attendeeIds, long meetingDurationMinutes) {
+    recordSize(SchedulerMetrics.Size.EVENTS, events.size());
+    long start = startTimer();
+
+    if (algorithm == Algorithm.MINUTE_BITMAP) {
+      long[] busyMask = MinuteBitmap.create();
+      int busyCount = 0;
+
+      for (CompactEvent event : events) {
+        if (event.isAttendedByAny(attendeeIds)) {
+          MinuteBitmap.set(busyMask, event.start(), event.end());
+          busyCount++;
+        }
+      }
+      start = lap(SchedulerMetrics.Phase.FILTER, start);
+      recordSize(SchedulerMetrics.Size.BUSY_INTERVALS, busyCount);
+
+      long[] freeIntervals = MinuteBitmap.freeIntervals(busyMask, meetingDurationMinutes);
+      lap(SchedulerMetrics.Phase.COMPLEMENT, start);
+      recordSize(SchedulerMetrics.Size.FREE_INTERVALS, freeIntervals.length);
+      return freeIntervals;
     }
 
-    Collections.sort(busyIntervals, TimeRange.ORDER_BY_START);
+    Intervals.Buffer busyIntervals = new Intervals.Buffer();
 
-    busyIntervals = getMergedIntervals(busyIntervals);
+    for (CompactEvent event : events) {
+      if (event.isAttendedByAny(attendeeIds)) {
+        busyIntervals.add(event.start(), event.end());
+      }
+    }
+    start = lap(SchedulerMetrics.Phase.FILTER, start);
+    recordSize(SchedulerMetrics.Size.BUSY_INTERVALS, busyIntervals.size());
 
-    // Add boundary at the start of the day.
-    busyIntervals.add(0, TimeRange.fromStartDuration(TimeRange.START_OF_DAY, /* duration= */ 0));
+    busyIntervals.sort();
+    start = lap(SchedulerMetrics.Phase.SORT, start);
 
-    // Add boundary at the end of the day.
-    busyIntervals.add(TimeRange.fromStartDuration(TimeRange.END_OF_DAY + 1, /* duration= */ 0));
+    busyIntervals.merge();
+    start = lap(SchedulerMetrics.Phase.MERGE, start);
 
-    return getAvailableIntervals(getMergedIntervals(busyIntervals), meetingDurationMinutes);
+    long[] freeIntervals = busyIntervals.complement(
+        TimeRange.START_OF_DAY, TimeRange.END_OF_DAY + 1, meetingDurationMinutes);
+    lap(SchedulerMetrics.Phase.COMPLEMENT, start);
+    recordSize(SchedulerMetrics.Size.FREE_INTERVALS, freeIntervals.length);
+    return freeIntervals;
   }
 
   /**
-   * Finds the available intervals from a list of busy intervals by calculating for their
-   * complement.
+   * Finds the meeting times that have no conflict between the attendees and the indexed events,
+   * using the cached result if there is one.
    *
-   * @param busyIntervals list containing busy non-overlapping intervals sorted in ascending order
+   * @param index the index of the events occurring in one day
+   * @param attendees list of unique attendees required in the meeting
    * @param meetingDurationMinutes the minimum meeting duration
-   * @return list containing the available intervals in ascending order
+   * @return packed non-overlapping available intervals sorted in ascending order
    */
-  private static List<TimeRange> getAvailableIntervals(
-      List<TimeRange> busyIntervals, Long meetingDurationMinutes) {
-    List<TimeRange> availableIntervals = new ArrayList<>();
+  private long[] getAvailableIntervals(
+      EventIndex index, Collection<String> attendees, long meetingDurationMinutes) {
+    if (cache != null) {
+      return cache.get(index.getVersion(), algorithm, attendees, meetingDurationMinutes,
+          () -> computeAvailableIntervals(index, attendees, meetingDurationMinutes));
+    }
 
-    // Checks if there is free time between two consecutive intervals.
-    for (int i = 0; i < busyIntervals.size() - 1; i++) {
-      TimeRange interval = TimeRange.fromStartEnd(
-          busyIntervals.get(i).end(), busyIntervals.get(i + 1).start(), /* inclusive= */ false);
+    return computeAvailableIntervals(index, attendees, meetingDurationMinutes);
+  }
 
-      if (interval.duration() >= meetingDurationMinutes) {
-        availableIntervals.add(interval);
-      }
+  private long[] computeAvailableIntervals(
+      EventIndex index, Collection<String> attendees, long meetingDurationMinutes) {
+    long start = startTimer();
+    long[] freeIntervals;
+
+    if (algorithm == Algorithm.MINUTE_BITMAP) {
+      long[] busyMask = index.getBusyMask(attendees);
+      start = lap(SchedulerMetrics.Phase.MERGE, start);
+
+      freeIntervals = MinuteBitmap.freeIntervals(busyMask, meetingDurationMinutes);
+    } else {
+      long[] busyIntervals = index.getBusyIntervals(attendees);
+      start = lap(SchedulerMetrics.Phase.MERGE, start);
+      recordSize(SchedulerMetrics.Size.BUSY_INTERVALS, busyIntervals.length);
+
+      freeIntervals = Intervals.complement(busyIntervals, busyIntervals.length,
+          TimeRange.START_OF_DAY, TimeRange.END_OF_DAY + 1, meetingDurationMinutes);
     }
 
-    return availableIntervals;
+    lap(SchedulerMetrics.Phase.COMPLEMENT, start);
+    recordSize(SchedulerMetrics.Size.FREE_INTERVALS, freeIntervals.length);
+    return freeIntervals;
   }
 
   /**
-   * Merges the time intervals that are overlapping.
+   * Finds the meeting times that have no conflict between the attendees and the events in a
+   * snapshot.
    *
-   * @param intervals sorted list of intervals based on starting times in ascending order
-   * @return merged list of non-overlapping intervals sorted in ascending order
+   * @param snapshot the snapshot of the events occurring in one day
+   * @param attendeeIds the snapshot IDs of the attendees, sorted in ascending order
+   * @param meetingDurationMinutes the minimum meeting duration
+   * @return packed non-overlapping available intervals sorted in ascending order
    */
-  private static List<TimeRange> getMergedIntervals(List<TimeRange> intervals) {
-    if (intervals.isEmpty()) {
-      return Collections.emptyList();
+  private long[] getAvailableIntervals(
+      CalendarSnapshot snapshot, int[] attendeeIds, long meetingDurationMinutes) {
+    long start = startTimer();
+    long[] freeIntervals;
+
+    if (algorithm == Algorithm.MINUTE_BITMAP) {
+      long[] busyMask = snapshot.getBusyMask(attendeeIds);
+      start = lap(SchedulerMetrics.Phase.MERGE, start);
+
+      freeIntervals = MinuteBitmap.freeIntervals(busyMask, meetingDurationMinutes);
+    } else {
+      long[] busyIntervals = snapshot.getBusyIntervals(attendeeIds);
+      start = lap(SchedulerMetrics.Phase.MERGE, start);
+      recordSize(SchedulerMetrics.Size.BUSY_INTERVALS, busyIntervals.length);
+
+      freeIntervals = Intervals.complement(busyIntervals, busyIntervals.length,
+          TimeRange.START_OF_DAY, TimeRange.END_OF_DAY + 1, meetingDurationMinutes);
     }
 
-    List<TimeRange> mergedIntervals = new ArrayList<>();
-    mergedIntervals.add(intervals.get(0));
+    lap(SchedulerMetrics.Phase.COMPLEMENT, start);
+    recordSize(SchedulerMetrics.Size.FREE_INTERVALS, freeIntervals.length);
+    return freeIntervals;
+  }
+
+  /**
+   * Indexes the events that involve at least one attendee of {@code requests}.
+   */
+  private static EventIndex indexForRequests(
+      Collection<Event> events, List<MeetingRequest> requests) {
+    Set<String> attendees = new HashSet<>();
 
-    for (int i = 1; i < intervals.size(); i++) {
-      TimeRange mergedInterval = mergedIntervals.get(mergedIntervals.size() - 1);
-      TimeRange currInterval = intervals.get(i);
+    for (MeetingRequest request : requests) {
+      attendees.addAll(request.getAttendees());
+      attendees.addAll(request.getOptionalAttendees());
+    }
 
-      if (mergedInterval.end() < currInterval.start()) {
-        mergedIntervals.add(currInterval);
-      } else if (mergedInterval.end() < currInterval.end()) {
-        mergedInterval = TimeRange.fromStartEnd(
-            mergedInterval.start(), currInterval.end(), /* inclusive= */ false);
+    return indexForAttendees(events, attendees);
+  }
 
-        mergedIntervals.remove(mergedIntervals.size() - 1);
-        mergedIntervals.add(mergedInterval);
+  /**
+   * Indexes the events that involve at least one of {@code attendees}.
+   */
+  private static EventIndex indexForAttendees(Collection<Event> events, Set<String> attendees) {
+    List<Event> relevantEvents = new ArrayList<>();
+    for (Event event : events) {
+      if (!Collections.disjoint(event.getAttendees(), attendees)) {
+        relevantEvents.add(event);
       }
     }
 
-    return mergedIntervals;
+    return new EventIndex(relevantEvents);
   }
 
   /**
-   * Merges two interval lists into one given that each merged interval is greater than or equal to
-   * the meeting duration.
-   *
-   * @param intervalsA the first interval list to merge - must have no overlapping intervals and be
-   *     sorted based in ascending order
-   * @param intervalsB the second interval list to merge - must have no overlapping intervals and be
-   *     sorted based in ascending order
-   * @param meetingDurationMinutes the minimum meeting duration
-   * @return merged list of non-overlapping intervals sorted in ascending order
+   * Returns the free intervals in {@code [0, windowLength)} that are at least {@code minDuration}
+   * long, given one-off busy intervals and cursors over recurring events' occurrences.
+   */
+  private long[] complement(Intervals.Buffer oneOffs,
+      List<RecurringEvent.Occurrences> recurrences, int windowLength, long minDuration) {
+    recordSize(SchedulerMetrics.Size.BUSY_INTERVALS, oneOffs.size());
+    long start = startTimer();
+
+    oneOffs.sort();
+    start = lap(SchedulerMetrics.Phase.SORT, start);
+
+    oneOffs.merge();
+    Intervals.Buffer busy =
+        recurrences.isEmpty() ? oneOffs : mergeOccurrences(oneOffs, recurrences);
+    start = lap(SchedulerMetrics.Phase.MERGE, start);
+
+    long[] freeIntervals = busy.complement(0, windowLength, minDuration);
+    lap(SchedulerMetrics.Phase.COMPLEMENT, start);
+    recordSize(SchedulerMetrics.Size.FREE_INTERVALS, freeIntervals.length);
+    return freeIntervals;
+  }
+
+  /**
+   * Merges the occurrences of {@code recurrences} with the merged {@code oneOffs}. The occurrences
+   * of each cursor come in ascending order, so they are merged with the one-off intervals in a
+   * single k-way merge, coalescing overlapping intervals as they are emitted.
    */
-  private static List<TimeRange> getMergedIntervals(
-      List<TimeRange> intervalsA, List<TimeRange> intervalsB, Long meetingDurationMinutes) {
-    List<TimeRange> mergedIntervals = new ArrayList<>();
+  private static Intervals.Buffer mergeOccurrences(
+      Intervals.Buffer oneOffs, List<RecurringEvent.Occurrences> recurrences) {
+    long[] sortedOneOffs = oneOffs.toMergedArray();
+    PriorityQueue<RecurringEvent.Occurrences> pending = new PriorityQueue<>(
+        recurrences.size(), Comparator.comparingInt(RecurringEvent.Occurrences::start));
 
-    int i = 0, j = 0;
+    for (RecurringEvent.Occurrences occurrences : recurrences) {
+      if (occurrences.advance()) {
+        pending.add(occurrences);
+      }
+    }
 
-    while (i < intervalsA.size() && j < intervalsB.size()) {
-      int start = Math.max(intervalsA.get(i).start(), intervalsB.get(j).start());
-      int end = Math.min(intervalsA.get(i).end(), intervalsB.get(j).end());
+    Intervals.Buffer busy = new Intervals.Buffer();
+    int next = 0;
 
-      if (end - start >= meetingDurationMinutes) {
-        mergedIntervals.add(TimeRange.fromStartEnd(start, end, /* inclusive= */ false));
+    while (next < sortedOneOffs.length || !pending.isEmpty()) {
+      if (pending.isEmpty() || (next < sortedOneOffs.length
+          && Intervals.start(sortedOneOffs[next]) <= pending.peek().start())) {
+        busy.addInOrder(Intervals.start(sortedOneOffs[next]), Intervals.end(sortedOneOffs[next]));
+        next++;
+        continue;
       }
 
-      if (intervalsA.get(i).end() < intervalsB.get(j).end()) {
-        i++;
-      } else {
-        j++;
+      RecurringEvent.Occurrences occurrences = pending.poll();
+      busy.addInOrder(occurrences.start(), occurrences.end());
+
+      if (occurrences.advance()) {
+        pending.add(occurrences);
       }
     }
 
-    return mergedIntervals;
+    return busy;
+  }
+
+  /**
+   * Materializes packed intervals holding minute offsets from {@code origin} as
+   * {@code EpochRange}s.
+   */
+  private static List<EpochRange> toEpochRanges(long[] intervals, long origin) {
+    List<EpochRange> ranges = new ArrayList<>(intervals.length);
+
+    for (long interval : intervals) {
+      ranges.add(EpochRange.fromStartEnd(
+          origin + Intervals.start(interval), origin + Intervals.end(interval)));
+    }
+
+    return ranges;
+  }
+
+  /**
+   * Returns {@code true} if {@code events} is large enough to split across the pool, and can be
+   * split by index.
+   */
+  private boolean isParallel(Collection<Event> events) {
+    return pool != null && pool.getParallelism() > 1
+        && events.size() >= PARALLEL_EVENT_THRESHOLD
+        && events instanceof List && events instanceof RandomAccess;
+  }
+
+  /**
+   * Returns the current time for timing a phase, or 0 without reading the clock if metrics are
+   * disabled.
+   */
+  private long startTimer() {
+    return metrics == null ? 0 : System.nanoTime();
+  }
+
+  /**
+   * Records the time since {@code start} against {@code phase} and returns the current time, so
+   * that the next phase can be timed from it.
+   */
+  private long lap(SchedulerMetrics.Phase phase, long start) {
+    if (metrics == null) {
+      return 0;
+    }
+
+    long now = System.nanoTime();
+    metrics.recordPhase(phase, now - start);
+    return now;
+  }
+
+  private void recordSize(SchedulerMetrics.Size size, long value) {
+    if (metrics != null) {
+      metrics.recordSize(size, value);
+    }
   }
 }
@@ -0,0 +1,145 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative {@code long} values with bounded relative error, in the
+ * style of HdrHistogram. Values below 32 get a bucket each; every larger power of two is split into
+ * 32 equal buckets, so a reported value is within about 3% of the recorded one. Recording is one
+ * array increment plus a few adders and never allocates, so it is safe to call on hot paths from
+ * many threads.
+ */
+public final class Histogram {
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = SUB_BUCKETS * (Long.SIZE - SUB_BUCKET_BITS);
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder total = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records {@code value}. Negative values are recorded as zero.
+   */
+  public void record(long value) {
+    value = Math.max(0, value);
+
+    counts.incrementAndGet(bucketOf(value));
+    count.increment();
+    total.add(value);
+
+    long currentMax = max.get();
+    while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+      currentMax = max.get();
+    }
+  }
+
+  /**
+   * Returns the number of recorded values.
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Returns the exact sum of the recorded values.
+   */
+  public long getTotal() {
+    return total.sum();
+  }
+
+  /**
+   * Returns the exact largest recorded value, or 0 if nothing was recorded.
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns the mean of the recorded values, or 0 if nothing was recorded.
+   */
+  public double getMean() {
+    long recorded = getCount();
+    return recorded == 0 ? 0 : (double) getTotal() / recorded;
+  }
+
+  /**
+   * Returns a value that at least {@code percentile} percent of the recorded values are less than
+   * or equal to. The result is the upper bound of a bucket, capped at the largest recorded value.
+   *
+   * @param percentile a percentile between 0 and 100
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile must be between 0 and 100");
+    }
+
+    long recorded = getCount();
+    if (recorded == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+    long seen = 0;
+
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      seen += counts.get(bucket);
+
+      if (seen >= rank) {
+        return Math.min(upperBoundOf(bucket), getMax());
+      }
+    }
+
+    // Values recorded concurrently with this call may be counted but not yet bucketed.
+    return getMax();
+  }
+
+  /**
+   * Forgets every recorded value. Values recorded concurrently may be partly kept.
+   */
+  public void reset() {
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      counts.set(bucket, 0);
+    }
+
+    count.reset();
+    total.reset();
+    max.set(0);
+  }
+
+  static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+
+    int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - 1 - SUB_BUCKET_BITS;
+    return SUB_BUCKETS * (shift + 1) + (int) ((value >>> shift) - SUB_BUCKETS);
+  }
+
+  static long upperBoundOf(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+
+    int shift = bucket / SUB_BUCKETS - 1;
+    long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+    return ((subBucket + 1) << shift) - 1;
+  }
+}
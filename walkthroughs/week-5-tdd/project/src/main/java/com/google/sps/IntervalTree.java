@@ -0,0 +1,273 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps {@code TimeRange}s to values and finds the values whose range overlaps a range or contains
+ * a point in {@code O(log n + k)} time, where {@code k} is the number of matching ranges.
+ *
+ * <p>The tree is an AVL tree ordered by start and then end, where every node also records the
+ * latest end in its subtree. A search skips any subtree whose latest end is before the searched
+ * range and any right subtree whose earliest start is after it. Values that share a range are kept
+ * together in one node. Overlap and containment follow {@link TimeRange#overlaps} and
+ * {@link TimeRange#contains(int)}, so empty ranges contain nothing. The tree is not synchronized.
+ *
+ * @param <V> the type of the values
+ */
+public final class IntervalTree<V> {
+  private Node<V> root;
+  private int size = 0;
+
+  /**
+   * Adds {@code value} under {@code range}. A value may be added more than once.
+   */
+  public void add(TimeRange range, V value) {
+    if (range == null) {
+      throw new IllegalArgumentException("range cannot be null");
+    }
+
+    root = add(root, range, value);
+    size++;
+  }
+
+  /**
+   * Removes one occurrence of {@code value} from under {@code range}.
+   *
+   * @return {@code true} if the value was found
+   */
+  public boolean remove(TimeRange range, V value) {
+    int oldSize = size;
+    root = remove(root, range.start(), range.end(), value);
+    return size != oldSize;
+  }
+
+  /**
+   * Returns the values whose range overlaps {@code range}, ordered by the start of their range.
+   */
+  public List<V> overlapping(TimeRange range) {
+    List<V> values = new ArrayList<>();
+    overlapping(root, range, values);
+    return values;
+  }
+
+  /**
+   * Returns the values whose range contains {@code point}, ordered by the start of their range.
+   */
+  public List<V> containing(int point) {
+    List<V> values = new ArrayList<>();
+    containing(root, point, values);
+    return values;
+  }
+
+  /**
+   * Returns the number of values in the tree.
+   */
+  public int size() {
+    return size;
+  }
+
+  private Node<V> add(Node<V> node, TimeRange range, V value) {
+    if (node == null) {
+      return new Node<>(range, value);
+    }
+
+    int order = compare(range.start(), range.end(), node);
+    if (order == 0) {
+      node.values.add(value);
+      return node;
+    }
+
+    if (order < 0) {
+      node.left = add(node.left, range, value);
+    } else {
+      node.right = add(node.right, range, value);
+    }
+
+    return rebalance(node);
+  }
+
+  private Node<V> remove(Node<V> node, int start, int end, V value) {
+    if (node == null) {
+      return null;
+    }
+
+    int order = compare(start, end, node);
+    if (order < 0) {
+      node.left = remove(node.left, start, end, value);
+    } else if (order > 0) {
+      node.right = remove(node.right, start, end, value);
+    } else {
+      if (!node.values.remove(value)) {
+        return node;
+      }
+
+      size--;
+      if (!node.values.isEmpty()) {
+        return node;
+      }
+
+      if (node.left == null) {
+        return node.right;
+      }
+
+      if (node.right == null) {
+        return node.left;
+      }
+
+      // Replace the node with its successor, the leftmost node of the right subtree.
+      Node<V> successor = node.right;
+      while (successor.left != null) {
+        successor = successor.left;
+      }
+
+      node.right = removeLeftmost(node.right);
+      successor.left = node.left;
+      successor.right = node.right;
+      return rebalance(successor);
+    }
+
+    return rebalance(node);
+  }
+
+  private Node<V> removeLeftmost(Node<V> node) {
+    if (node.left == null) {
+      return node.right;
+    }
+
+    node.left = removeLeftmost(node.left);
+    return rebalance(node);
+  }
+
+  private static <V> void overlapping(Node<V> node, TimeRange range, List<V> values) {
+    // A stored range can only overlap if it ends no earlier than the searched range starts and
+    // starts no later than the searched range ends. The bounds are inclusive because an empty
+    // range still overlaps a range that contains its start.
+    if (node == null || node.maxEnd < range.start()) {
+      return;
+    }
+
+    overlapping(node.left, range, values);
+
+    if (node.range.start() > range.end()) {
+      return;
+    }
+
+    if (node.range.overlaps(range)) {
+      values.addAll(node.values);
+    }
+
+    overlapping(node.right, range, values);
+  }
+
+  private static <V> void containing(Node<V> node, int point, List<V> values) {
+    if (node == null || node.maxEnd <= point) {
+      return;
+    }
+
+    containing(node.left, point, values);
+
+    if (node.range.start() > point) {
+      return;
+    }
+
+    if (node.range.contains(point)) {
+      values.addAll(node.values);
+    }
+
+    containing(node.right, point, values);
+  }
+
+  private static int compare(int start, int end, Node<?> node) {
+    int order = Integer.compare(start, node.range.start());
+    return order != 0 ? order : Integer.compare(end, node.range.end());
+  }
+
+  private static <V> Node<V> rebalance(Node<V> node) {
+    int balance = height(node.left) - height(node.right);
+
+    if (balance > 1) {
+      if (height(node.left.left) < height(node.left.right)) {
+        node.left = rotateLeft(node.left);
+      }
+      return rotateRight(node);
+    }
+
+    if (balance < -1) {
+      if (height(node.right.right) < height(node.right.left)) {
+        node.right = rotateRight(node.right);
+      }
+      return rotateLeft(node);
+    }
+
+    node.update();
+    return node;
+  }
+
+  private static <V> Node<V> rotateLeft(Node<V> node) {
+    Node<V> right = node.right;
+    node.right = right.left;
+    right.left = node;
+    node.update();
+    right.update();
+    return right;
+  }
+
+  private static <V> Node<V> rotateRight(Node<V> node) {
+    Node<V> left = node.left;
+    node.left = left.right;
+    left.right = node;
+    node.update();
+    left.update();
+    return left;
+  }
+
+  private static int height(Node<?> node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static final class Node<V> {
+    private final TimeRange range;
+    private final List<V> values = new ArrayList<>(1);
+    private Node<V> left;
+    private Node<V> right;
+    private int height = 1;
+    private int maxEnd;
+
+    private Node(TimeRange range, V value) {
+      this.range = range;
+      this.maxEnd = range.end();
+      values.add(value);
+    }
+
+    /**
+     * Recomputes the height and latest end from the children.
+     */
+    private void update() {
+      height = 1 + Math.max(height(left), height(right));
+      maxEnd = range.end();
+
+      if (left != null) {
+        maxEnd = Math.max(maxEnd, left.maxEnd);
+      }
+
+      if (right != null) {
+        maxEnd = Math.max(maxEnd, right.maxEnd);
+      }
+    }
+  }
+}
@@ -0,0 +1,325 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Primitive interval operations used by the scheduler. An interval {@code [start, end)} is packed
+ * into a single {@code long} with the start in the high 32 bits and the end in the low 32 bits, so
+ * sorting a {@code long[]} of non-negative intervals orders them by start time without boxing or a
+ * comparator. {@code TimeRange} objects are only created by {@link #toTimeRanges}.
+ */
+final class Intervals {
+  static final long[] EMPTY = new long[0];
+
+  private static final long LOW_BITS = 0xFFFFFFFFL;
+
+  private Intervals() {}
+
+  /**
+   * Packs {@code [start, end)} into a single {@code long}. Both bounds must be non-negative.
+   */
+  static long pack(int start, int end) {
+    return ((long) start << 32) | (end & LOW_BITS);
+  }
+
+  /**
+   * Returns the inclusive start of a packed interval.
+   */
+  static int start(long interval) {
+    return (int) (interval >>> 32);
+  }
+
+  /**
+   * Returns the exclusive end of a packed interval.
+   */
+  static int end(long interval) {
+    return (int) interval;
+  }
+
+  /**
+   * Packs the bounds of {@code range}.
+   */
+  static long pack(TimeRange range) {
+    return pack(range.start(), range.end());
+  }
+
+  /**
+   * Sorts the first {@code size} intervals and merges the ones that overlap or touch in place.
+   *
+   * @param intervals packed intervals - only the first {@code size} entries are read
+   * @param size the number of valid entries in {@code intervals}
+   * @return the number of merged intervals now stored at the front of {@code intervals}
+   */
+  static int sortAndMerge(long[] intervals, int size) {
+    Arrays.sort(intervals, 0, size);
+    return merge(intervals, size);
+  }
+
+  /**
+   * Merges the first {@code size} intervals that overlap or touch in place.
+   *
+   * @param intervals packed intervals sorted in ascending order - only the first {@code size}
+   *     entries are read
+   * @param size the number of valid entries in {@code intervals}
+   * @return the number of merged intervals now stored at the front of {@code intervals}
+   */
+  static int merge(long[] intervals, int size) {
+    if (size == 0) {
+      return 0;
+    }
+
+    int merged = 0;
+    int mergedStart = start(intervals[0]);
+    int mergedEnd = end(intervals[0]);
+
+    for (int i = 1; i < size; i++) {
+      int currStart = start(intervals[i]);
+      int currEnd = end(intervals[i]);
+
+      if (mergedEnd < currStart) {
+        intervals[merged++] = pack(mergedStart, mergedEnd);
+        mergedStart = currStart;
+        mergedEnd = currEnd;
+      } else if (mergedEnd < currEnd) {
+        mergedEnd = currEnd;
+      }
+    }
+
+    intervals[merged++] = pack(mergedStart, mergedEnd);
+    return merged;
+  }
+
+  /**
+   * Returns the merged union of several interval lists. Lists are merged pairwise in a balanced
+   * tree of linear merges, so {@code n} intervals in {@code k} lists are combined in
+   * {@code O(n log k)} without sorting.
+   *
+   * @param intervalLists lists of packed intervals, each sorted in ascending order
+   * @return merged, non-overlapping intervals sorted in ascending order. A single list is returned
+   *     as is.
+   */
+  static long[] union(List<long[]> intervalLists) {
+    if (intervalLists.isEmpty()) {
+      return EMPTY;
+    }
+
+    return union(intervalLists, 0, intervalLists.size());
+  }
+
+  private static long[] union(List<long[]> intervalLists, int from, int to) {
+    if (to - from == 1) {
+      return intervalLists.get(from);
+    }
+
+    int middle = (from + to) >>> 1;
+    return union(union(intervalLists, from, middle), union(intervalLists, middle, to));
+  }
+
+  /**
+   * Returns the merged union of two interval lists in a single linear pass.
+   *
+   * @param intervalsA packed intervals sorted in ascending order
+   * @param intervalsB packed intervals sorted in ascending order
+   * @return merged, non-overlapping intervals sorted in ascending order
+   */
+  static long[] union(long[] intervalsA, long[] intervalsB) {
+    long[] union = new long[intervalsA.length + intervalsB.length];
+    int i = 0, j = 0, size = 0;
+
+    while (i < intervalsA.length || j < intervalsB.length) {
+      long next;
+      if (j == intervalsB.length || (i < intervalsA.length && intervalsA[i] < intervalsB[j])) {
+        next = intervalsA[i++];
+      } else {
+        next = intervalsB[j++];
+      }
+
+      if (size > 0 && end(union[size - 1]) >= start(next)) {
+        if (end(next) > end(union[size - 1])) {
+          union[size - 1] = pack(start(union[size - 1]), end(next));
+        }
+      } else {
+        union[size++] = next;
+      }
+    }
+
+    return size == union.length ? union : Arrays.copyOf(union, size);
+  }
+
+  /**
+   * Finds the free intervals in {@code [rangeStart, rangeEnd)} that are not covered by the busy
+   * intervals.
+   *
+   * @param busy merged, non-overlapping busy intervals sorted in ascending order
+   * @param size the number of valid entries in {@code busy}
+   * @param rangeStart the inclusive start of the searched range
+   * @param rangeEnd the exclusive end of the searched range
+   * @param minDuration the minimum length of a returned free interval
+   * @return packed free intervals sorted in ascending order
+   */
+  static long[] complement(long[] busy, int size, int rangeStart, int rangeEnd, long minDuration) {
+    long[] free = new long[size + 1];
+    int count = 0;
+    int cursor = rangeStart;
+
+    for (int i = 0; i < size && cursor < rangeEnd; i++) {
+      int busyStart = Math.min(start(busy[i]), rangeEnd);
+
+      if (busyStart > cursor && busyStart - cursor >= minDuration) {
+        free[count++] = pack(cursor, busyStart);
+      }
+
+      cursor = Math.max(cursor, end(busy[i]));
+    }
+
+    if (rangeEnd > cursor && rangeEnd - cursor >= minDuration) {
+      free[count++] = pack(cursor, rangeEnd);
+    }
+
+    return count == free.length ? free : Arrays.copyOf(free, count);
+  }
+
+  /**
+   * Intersects two interval lists, keeping only the intersections that are at least
+   * {@code minDuration} long.
+   *
+   * @param intervalsA non-overlapping intervals sorted in ascending order
+   * @param intervalsB non-overlapping intervals sorted in ascending order
+   * @param minDuration the minimum length of a returned interval
+   * @return packed intersections sorted in ascending order
+   */
+  static long[] intersect(long[] intervalsA, long[] intervalsB, long minDuration) {
+    long[] intersection = new long[intervalsA.length + intervalsB.length];
+    int count = 0;
+
+    int i = 0, j = 0;
+
+    while (i < intervalsA.length && j < intervalsB.length) {
+      int endA = end(intervalsA[i]);
+      int endB = end(intervalsB[j]);
+      int start = Math.max(start(intervalsA[i]), start(intervalsB[j]));
+      int end = Math.min(endA, endB);
+
+      if (end - start >= minDuration) {
+        intersection[count++] = pack(start, end);
+      }
+
+      if (endA < endB) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+
+    return Arrays.copyOf(intersection, count);
+  }
+
+  /**
+   * Materializes packed intervals as {@code TimeRange}s.
+   */
+  static List<TimeRange> toTimeRanges(long[] intervals) {
+    List<TimeRange> ranges = new ArrayList<>(intervals.length);
+
+    for (long interval : intervals) {
+      ranges.add(TimeRange.fromStartEnd(start(interval), end(interval), /* inclusive= */ false));
+    }
+
+    return ranges;
+  }
+
+  /**
+   * A growable list of packed intervals, for collecting busy intervals from a stream of events.
+   */
+  static final class Buffer {
+    private long[] intervals = new long[16];
+    private int size = 0;
+    private boolean merged = true;
+
+    void add(int start, int end) {
+      if (size == intervals.length) {
+        intervals = Arrays.copyOf(intervals, size * 2);
+      }
+
+      intervals[size++] = pack(start, end);
+      merged = false;
+    }
+
+    /**
+     * Adds an interval that starts no earlier than every buffered interval, merging it with the
+     * last one if they overlap or touch. The buffer must already be merged, and stays merged.
+     */
+    void addInOrder(int start, int end) {
+      if (size > 0 && end(intervals[size - 1]) >= start) {
+        if (end > end(intervals[size - 1])) {
+          intervals[size - 1] = pack(start(intervals[size - 1]), end);
+        }
+        return;
+      }
+
+      if (size == intervals.length) {
+        intervals = Arrays.copyOf(intervals, size * 2);
+      }
+
+      intervals[size++] = pack(start, end);
+    }
+
+    int size() {
+      return size;
+    }
+
+    /**
+     * Sorts the buffered intervals in ascending order.
+     */
+    void sort() {
+      Arrays.sort(intervals, 0, size);
+    }
+
+    /**
+     * Merges the buffered intervals in place. They must have been sorted first.
+     */
+    void merge() {
+      size = Intervals.merge(intervals, size);
+      merged = true;
+    }
+
+    /**
+     * Merges the buffered intervals if needed and returns a copy of the result.
+     */
+    long[] toMergedArray() {
+      sortAndMergeIfNeeded();
+      return Arrays.copyOf(intervals, size);
+    }
+
+    /**
+     * Merges the buffered busy intervals if needed and returns the free intervals in
+     * {@code [rangeStart, rangeEnd)} that are at least {@code minDuration} long.
+     */
+    long[] complement(int rangeStart, int rangeEnd, long minDuration) {
+      sortAndMergeIfNeeded();
+      return Intervals.complement(intervals, size, rangeStart, rangeEnd, minDuration);
+    }
+
+    private void sortAndMergeIfNeeded() {
+      if (!merged) {
+        sort();
+        merge();
+      }
+    }
+  }
+}
@@ -19,17 +19,23 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Set;
 
 public final class MeetingRequest {
   // All the people that should be attending this new meeting. Use a set to avoid duplicates.
-  private final Collection<String> attendees = new HashSet<>();
+  private final Set<String> attendees = new HashSet<>();
 
   // Some optional attendees for this new meeting. Use a set to avoid duplicates.
-  private final Collection<String> optional_attendees = new HashSet<>();
+  private final Set<String> optional_attendees = new HashSet<>();
 
   // The duration of the meeting in minutes.
   private final long duration;
 
+  // Whether the meeting needs a room, and what that room must offer.
+  private boolean roomRequired = false;
+  private int roomCapacity = 0;
+  private final Collection<String> requiredResources = new HashSet<>();
+
   public MeetingRequest(Collection<String> attendees, long duration) {
     this.duration = duration;
     this.attendees.addAll(attendees);
@@ -39,14 +45,14 @@ public final class MeetingRequest {
    * Returns a read-only copy of the people who are required to attend this meeting.
    */
   public Collection<String> getAttendees() {
-    return Collections.unmodifiableCollection(attendees);
+    return Collections.unmodifiableSet(attendees);
   }
 
   /**
    * Returns a read-only copy of the people who are optional to attend this meeting.
    */
   public Collection<String> getOptionalAttendees() {
-    return Collections.unmodifiableCollection(optional_attendees);
+    return Collections.unmodifiableSet(optional_attendees);
   }
 
   /**
@@ -64,4 +70,42 @@ public final class MeetingRequest {
   public long getDuration() {
     return duration;
   }
+
+  /**
+   * Requires the meeting to be held in a room that seats at least {@code capacity} people.
+   */
+  public void requireRoom(int capacity) {
+    roomRequired = true;
+    roomCapacity = capacity;
+  }
+
+  /**
+   * Requires the meeting's room to have {@code resource}, such as a projector. The meeting then
+   * needs a room even if {@link #requireRoom} was not called.
+   */
+  public void addRequiredResource(String resource) {
+    roomRequired = true;
+    requiredResources.add(resource);
+  }
+
+  /**
+   * Returns {@code true} if the meeting needs a room.
+   */
+  public boolean isRoomRequired() {
+    return roomRequired;
+  }
+
+  /**
+   * Returns the number of people the meeting's room must seat.
+   */
+  public int getRoomCapacity() {
+    return roomCapacity;
+  }
+
+  /**
+   * Returns a read-only copy of the resources the meeting's room must have.
+   */
+  public Collection<String> getRequiredResources() {
+    return Collections.unmodifiableCollection(requiredResources);
+  }
 }
@@ -0,0 +1,138 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+
+/**
+ * Operations on busy masks that hold one bit per minute of the day. A whole day fits in
+ * {@link #WORDS} longs, so combining the masks of several attendees is a handful of word-wide ORs
+ * regardless of how many events they have. Zero-length events cover no minutes and therefore do
+ * not mark anything as busy.
+ */
+final class MinuteBitmap {
+  static final int MINUTES = TimeRange.WHOLE_DAY.duration();
+  static final int WORDS = (MINUTES + Long.SIZE - 1) / Long.SIZE;
+
+  private MinuteBitmap() {}
+
+  /**
+   * Returns a mask in which every minute is free.
+   */
+  static long[] create() {
+    return new long[WORDS];
+  }
+
+  /**
+   * Marks the minutes in {@code [start, end)} as busy. Minutes outside of the day are ignored.
+   */
+  static void set(long[] mask, int start, int end) {
+    start = Math.max(start, 0);
+    end = Math.min(end, MINUTES);
+
+    if (start >= end) {
+      return;
+    }
+
+    int startWord = start >>> 6;
+    int endWord = (end - 1) >>> 6;
+    long firstWordMask = -1L << start;
+    long lastWordMask = -1L >>> -end;
+
+    if (startWord == endWord) {
+      mask[startWord] |= firstWordMask & lastWordMask;
+      return;
+    }
+
+    mask[startWord] |= firstWordMask;
+    for (int word = startWord + 1; word < endWord; word++) {
+      mask[word] = -1L;
+    }
+    mask[endWord] |= lastWordMask;
+  }
+
+  /**
+   * Marks every minute that is busy in {@code source} as busy in {@code target}.
+   */
+  static void or(long[] target, long[] source) {
+    for (int word = 0; word < WORDS; word++) {
+      target[word] |= source[word];
+    }
+  }
+
+  /**
+   * Finds the runs of free minutes that are at least {@code minDuration} long.
+   *
+   * @return packed free intervals sorted in ascending order
+   */
+  static long[] freeIntervals(long[] mask, long minDuration) {
+    long[] free = new long[8];
+    int count = 0;
+    int minute = 0;
+
+    while (minute < MINUTES) {
+      int freeStart = nextFreeMinute(mask, minute);
+      if (freeStart >= MINUTES) {
+        break;
+      }
+
+      int freeEnd = nextBusyMinute(mask, freeStart);
+      if (freeEnd - freeStart >= minDuration) {
+        if (count == free.length) {
+          free = Arrays.copyOf(free, count * 2);
+        }
+        free[count++] = Intervals.pack(freeStart, freeEnd);
+      }
+
+      minute = freeEnd;
+    }
+
+    return Arrays.copyOf(free, count);
+  }
+
+  /**
+   * Returns the first busy minute at or after {@code from}, or {@link #MINUTES} if there is none.
+   */
+  private static int nextBusyMinute(long[] mask, int from) {
+    int word = from >>> 6;
+    long bits = mask[word] & (-1L << from);
+
+    while (bits == 0) {
+      if (++word == WORDS) {
+        return MINUTES;
+      }
+      bits = mask[word];
+    }
+
+    return Math.min(word * Long.SIZE + Long.numberOfTrailingZeros(bits), MINUTES);
+  }
+
+  /**
+   * Returns the first free minute at or after {@code from}, or {@link #MINUTES} if there is none.
+   */
+  private static int nextFreeMinute(long[] mask, int from) {
+    int word = from >>> 6;
+    long bits = ~mask[word] & (-1L << from);
+
+    while (bits == 0) {
+      if (++word == WORDS) {
+        return MINUTES;
+      }
+      bits = ~mask[word];
+    }
+
+    return Math.min(word * Long.SIZE + Long.numberOfTrailingZeros(bits), MINUTES);
+  }
+}
@@ -0,0 +1,75 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Collects the merged busy intervals of a group of attendees from a large list of events with
+ * fork/join. The list is split in half until a range is at most {@code chunkSize} events long;
+ * each range is scanned, sorted and merged on its own, and sibling results are joined with a
+ * linear {@link Intervals#union(long[], long[])}.
+ */
+final class ParallelBusyIntervals extends RecursiveTask<long[]> {
+  private static final long serialVersionUID = 1L;
+
+  private final List<Event> events;
+  private final int from;
+  private final int to;
+  private final Collection<String> attendees;
+  private final int chunkSize;
+
+  /**
+   * @param events the events to scan. Must support fast random access.
+   * @param from the index of the first event to scan, inclusive
+   * @param to the index of the last event to scan, exclusive
+   */
+  ParallelBusyIntervals(
+      List<Event> events, int from, int to, Collection<String> attendees, int chunkSize) {
+    this.events = events;
+    this.from = from;
+    this.to = to;
+    this.attendees = attendees;
+    this.chunkSize = chunkSize;
+  }
+
+  @Override
+  protected long[] compute() {
+    if (to - from <= chunkSize) {
+      Intervals.Buffer busyIntervals = new Intervals.Buffer();
+
+      for (int i = from; i < to; i++) {
+        Event event = events.get(i);
+
+        if (!Collections.disjoint(event.getAttendees(), attendees)) {
+          busyIntervals.add(event.getWhen().start(), event.getWhen().end());
+        }
+      }
+
+      return busyIntervals.toMergedArray();
+    }
+
+    int middle = (from + to) >>> 1;
+    ParallelBusyIntervals left =
+        new ParallelBusyIntervals(events, from, middle, attendees, chunkSize);
+    left.fork();
+
+    long[] right = new ParallelBusyIntervals(events, middle, to, attendees, chunkSize).compute();
+    return Intervals.union(left.join(), right);
+  }
+}
@@ -0,0 +1,215 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A subset of the RFC 5545 {@code RRULE} recurrence rule. The supported parts are:
+ *
+ * <ul>
+ *   <li>{@code FREQ=DAILY} or {@code FREQ=WEEKLY} (required)
+ *   <li>{@code INTERVAL=n}, the number of days or weeks between repetitions (default 1)
+ *   <li>{@code COUNT=n}, the total number of occurrences
+ *   <li>{@code UNTIL=yyyyMMdd}, the last day an occurrence may start on, inclusive
+ *   <li>{@code BYDAY=MO,TU,...}, the days of the week to repeat on, without ordinal prefixes
+ * </ul>
+ *
+ * <p>{@code COUNT} and {@code UNTIL} may not both be given, and weeks start on Monday. Rules are
+ * immutable.
+ */
+public final class RecurrenceRule {
+  /**
+   * How often the rule repeats.
+   */
+  public enum Frequency {
+    DAILY,
+    WEEKLY
+  }
+
+  // Weekday codes in ISO order, so that a code's index is its day of the week with Monday as 0.
+  private static final List<String> WEEKDAYS = Arrays.asList("MO", "TU", "WE", "TH", "FR", "SA",
+      "SU");
+
+  private final Frequency frequency;
+  private final int interval;
+  private final int count;
+  private final long untilEpochDay;
+  private final int weekdayMask;
+
+  private RecurrenceRule(
+      Frequency frequency, int interval, int count, long untilEpochDay, int weekdayMask) {
+    this.frequency = frequency;
+    this.interval = interval;
+    this.count = count;
+    this.untilEpochDay = untilEpochDay;
+    this.weekdayMask = weekdayMask;
+  }
+
+  /**
+   * Parses a rule such as {@code FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE;COUNT=10}.
+   *
+   * @throws IllegalArgumentException if the rule is malformed or uses an unsupported part
+   */
+  public static RecurrenceRule parse(String rule) {
+    if (rule == null) {
+      throw new IllegalArgumentException("rule cannot be null");
+    }
+
+    Frequency frequency = null;
+    int interval = 1;
+    int count = Integer.MAX_VALUE;
+    long untilEpochDay = Long.MAX_VALUE;
+    int weekdayMask = 0;
+    boolean bounded = false;
+
+    for (String part : rule.split(";")) {
+      int equals = part.indexOf('=');
+      if (equals < 0) {
+        throw new IllegalArgumentException("malformed rule part: " + part);
+      }
+
+      String name = part.substring(0, equals);
+      String value = part.substring(equals + 1);
+
+      switch (name) {
+        case "FREQ":
+          try {
+            frequency = Frequency.valueOf(value);
+          } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unsupported FREQ: " + value, e);
+          }
+          break;
+        case "INTERVAL":
+          interval = parsePositive(name, value);
+          break;
+        case "COUNT":
+          bounded = markBounded(bounded);
+          count = parsePositive(name, value);
+          break;
+        case "UNTIL":
+          bounded = markBounded(bounded);
+          untilEpochDay = parseDate(value);
+          break;
+        case "BYDAY":
+          weekdayMask = parseWeekdays(value);
+          break;
+        default:
+          throw new IllegalArgumentException("unsupported rule part: " + name);
+      }
+    }
+
+    if (frequency == null) {
+      throw new IllegalArgumentException("FREQ is required");
+    }
+
+    return new RecurrenceRule(frequency, interval, count, untilEpochDay, weekdayMask);
+  }
+
+  Frequency getFrequency() {
+    return frequency;
+  }
+
+  int getInterval() {
+    return interval;
+  }
+
+  /**
+   * Returns the maximum number of occurrences, or {@code Integer.MAX_VALUE} if there is no limit.
+   */
+  int getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the last epoch day an occurrence may start on, or {@code Long.MAX_VALUE} if there is
+   * no limit.
+   */
+  long getUntilEpochDay() {
+    return untilEpochDay;
+  }
+
+  /**
+   * Returns {@code true} if {@code BYDAY} lists {@code weekday}, with Monday as 0.
+   */
+  boolean isOnWeekday(int weekday) {
+    return (weekdayMask & (1 << weekday)) != 0;
+  }
+
+  /**
+   * Returns {@code true} if the rule has a {@code BYDAY} part.
+   */
+  boolean hasWeekdays() {
+    return weekdayMask != 0;
+  }
+
+  /**
+   * Returns the day of the week of {@code epochDay}, with Monday as 0.
+   */
+  static int weekdayOf(long epochDay) {
+    // The epoch, 1970-01-01, was a Thursday.
+    return (int) Math.floorMod(epochDay + 3, 7L);
+  }
+
+  private static boolean markBounded(boolean alreadyBounded) {
+    if (alreadyBounded) {
+      throw new IllegalArgumentException("COUNT and UNTIL cannot both be given");
+    }
+
+    return true;
+  }
+
+  private static int parsePositive(String name, String value) {
+    int parsed;
+    try {
+      parsed = Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(name + " must be a number: " + value, e);
+    }
+
+    if (parsed <= 0) {
+      throw new IllegalArgumentException(name + " must be positive: " + value);
+    }
+
+    return parsed;
+  }
+
+  private static long parseDate(String value) {
+    try {
+      return LocalDate.parse(value, DateTimeFormatter.BASIC_ISO_DATE).toEpochDay();
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("UNTIL must be a date like 20200131: " + value, e);
+    }
+  }
+
+  private static int parseWeekdays(String value) {
+    int mask = 0;
+
+    for (String code : value.split(",")) {
+      int weekday = WEEKDAYS.indexOf(code);
+      if (weekday < 0) {
+        throw new IllegalArgumentException("unsupported BYDAY value: " + code);
+      }
+
+      mask |= 1 << weekday;
+    }
+
+    return mask;
+  }
+}
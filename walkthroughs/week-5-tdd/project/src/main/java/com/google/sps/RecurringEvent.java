@@ -0,0 +1,284 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An event that repeats according to a {@link RecurrenceRule}, such as a weekly 1:1 or a daily
+ * stand-up. Occurrences are never stored: they are computed on demand, and only for the window
+ * being searched. RecurringEvents are considered read-only.
+ */
+public final class RecurringEvent {
+  private static final long MINUTES_PER_DAY = EpochRange.MINUTES_PER_DAY;
+
+  private final String title;
+  private final EpochRange first;
+  private final Set<String> attendees = new HashSet<>();
+  private final RecurrenceRule rule;
+
+  // The rule compiled into a repeating pattern. Occurrence n, counting from the start of the
+  // pattern, is on day anchorDay + (n / offsets.length) * periodDays + offsets[n % offsets.length].
+  // The first skipped occurrences of the pattern fall before the first occurrence and are ignored.
+  private final long anchorDay;
+  private final long periodDays;
+  private final long[] offsets;
+  private final int skipped;
+  private final long timeOfDay;
+
+  /**
+   * Creates a new recurring event.
+   *
+   * @param title The human-readable name for the event. Must be non-null.
+   * @param first The time of the first occurrence. Its day must match the rule's {@code BYDAY},
+   *     if any. Must be non-null.
+   * @param attendees The collection of people attending the event. Must be non-null.
+   * @param rule How the event repeats. Must be non-null.
+   */
+  public RecurringEvent(
+      String title, EpochRange first, Collection<String> attendees, RecurrenceRule rule) {
+    if (title == null) {
+      throw new IllegalArgumentException("title cannot be null");
+    }
+
+    if (first == null) {
+      throw new IllegalArgumentException("first cannot be null");
+    }
+
+    if (attendees == null) {
+      throw new IllegalArgumentException("attendees cannot be null. Use empty array instead.");
+    }
+
+    if (rule == null) {
+      throw new IllegalArgumentException("rule cannot be null");
+    }
+
+    long firstDay = Math.floorDiv(first.start(), MINUTES_PER_DAY);
+    int firstWeekday = RecurrenceRule.weekdayOf(firstDay);
+
+    if (rule.hasWeekdays() && !rule.isOnWeekday(firstWeekday)) {
+      throw new IllegalArgumentException("first must fall on one of the rule's BYDAY days");
+    }
+
+    this.title = title;
+    this.first = first;
+    this.attendees.addAll(attendees);
+    this.rule = rule;
+    this.timeOfDay = first.start() - firstDay * MINUTES_PER_DAY;
+
+    int interval = rule.getInterval();
+
+    if (rule.getFrequency() == RecurrenceRule.Frequency.WEEKLY) {
+      // Weeks start on Monday, and every listed weekday of the first week is part of the pattern.
+      anchorDay = firstDay - firstWeekday;
+      periodDays = 7L * interval;
+      offsets = weeklyOffsets(rule, firstWeekday);
+    } else if (rule.hasWeekdays()) {
+      // Every interval-th day whose weekday is listed. The weekdays repeat after seven steps.
+      anchorDay = firstDay;
+      periodDays = 7L * interval;
+      offsets = dailyOffsets(rule, firstWeekday);
+    } else {
+      anchorDay = firstDay;
+      periodDays = interval;
+      offsets = new long[] {0};
+    }
+
+    int skipped = 0;
+    while (anchorDay + offsets[skipped] < firstDay) {
+      skipped++;
+    }
+    this.skipped = skipped;
+  }
+
+  /**
+   * Returns the human-readable name for this event.
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Returns the {@code EpochRange} of the first occurrence.
+   */
+  public EpochRange getFirst() {
+    return first;
+  }
+
+  /**
+   * Returns a read-only set of required attendees for this event.
+   */
+  public Set<String> getAttendees() {
+    return Collections.unmodifiableSet(attendees);
+  }
+
+  /**
+   * Returns how this event repeats.
+   */
+  public RecurrenceRule getRule() {
+    return rule;
+  }
+
+  /**
+   * Returns the occurrences that overlap {@code window}, in ascending order. The occurrences are
+   * not clipped to the window.
+   */
+  public List<EpochRange> getOccurrences(EpochRange window) {
+    List<EpochRange> occurrences = new ArrayList<>();
+
+    for (long n = firstIndexEndingAfter(window.start()); ; n++) {
+      long start = startOf(n);
+
+      if (!isInRule(n) || start >= window.end()) {
+        return occurrences;
+      }
+
+      EpochRange occurrence = EpochRange.fromStartDuration(start, first.duration());
+      if (occurrence.overlaps(window)) {
+        occurrences.add(occurrence);
+      }
+    }
+  }
+
+  /**
+   * Returns a cursor over the occurrences that overlap {@code window}.
+   */
+  Occurrences occurrencesIn(EpochRange window) {
+    return new Occurrences(window);
+  }
+
+  /**
+   * Returns the start of occurrence {@code n} of the pattern, in epoch minutes.
+   */
+  private long startOf(long n) {
+    long day = anchorDay + (n / offsets.length) * periodDays + offsets[(int) (n % offsets.length)];
+    return day * MINUTES_PER_DAY + timeOfDay;
+  }
+
+  /**
+   * Returns {@code true} if the {@code COUNT} and {@code UNTIL} of the rule allow occurrence
+   * {@code n} of the pattern.
+   */
+  private boolean isInRule(long n) {
+    long day = Math.floorDiv(startOf(n), MINUTES_PER_DAY);
+    return n - skipped < rule.getCount() && day <= rule.getUntilEpochDay();
+  }
+
+  /**
+   * Returns the index of an occurrence no later than the first one that ends after {@code time},
+   * and at most one period earlier, so that callers can find the occurrences near any time in
+   * constant time.
+   */
+  private long firstIndexEndingAfter(long time) {
+    long latestStartDay = Math.floorDiv(time - timeOfDay - first.duration(), MINUTES_PER_DAY);
+    long periods = Math.floorDiv(latestStartDay - anchorDay, periodDays);
+    return Math.max(skipped, periods * offsets.length);
+  }
+
+  private static long[] weeklyOffsets(RecurrenceRule rule, int firstWeekday) {
+    if (!rule.hasWeekdays()) {
+      return new long[] {firstWeekday};
+    }
+
+    long[] offsets = new long[7];
+    int count = 0;
+
+    for (int weekday = 0; weekday < 7; weekday++) {
+      if (rule.isOnWeekday(weekday)) {
+        offsets[count++] = weekday;
+      }
+    }
+
+    return Arrays.copyOf(offsets, count);
+  }
+
+  private static long[] dailyOffsets(RecurrenceRule rule, int firstWeekday) {
+    int interval = rule.getInterval();
+    long[] offsets = new long[7];
+    int count = 0;
+
+    for (int step = 0; step < 7; step++) {
+      if (rule.isOnWeekday((int) ((firstWeekday + (long) step * interval) % 7))) {
+        offsets[count++] = (long) step * interval;
+      }
+    }
+
+    return Arrays.copyOf(offsets, count);
+  }
+
+  /**
+   * A cursor over the occurrences of a recurring event that overlap a window, as minute offsets
+   * from the start of the window clipped to it. Occurrences are computed one at a time, in
+   * ascending order of start.
+   */
+  final class Occurrences {
+    private final EpochRange window;
+    private long next;
+    private int start;
+    private int end;
+
+    private Occurrences(EpochRange window) {
+      this.window = window;
+      this.next = firstIndexEndingAfter(window.start());
+    }
+
+    /**
+     * Moves to the next occurrence.
+     *
+     * @return {@code false} if there are no more occurrences in the window
+     */
+    boolean advance() {
+      while (next >= 0) {
+        long occurrenceStart = startOf(next);
+
+        if (!isInRule(next) || occurrenceStart >= window.end()) {
+          next = -1;
+          return false;
+        }
+
+        next++;
+        long occurrenceEnd = occurrenceStart + first.duration();
+
+        if (occurrenceEnd > window.start()) {
+          start = (int) (Math.max(occurrenceStart, window.start()) - window.start());
+          end = (int) (Math.min(occurrenceEnd, window.end()) - window.start());
+          return true;
+        }
+      }
+
+      return false;
+    }
+
+    /**
+     * Returns the start of the current occurrence as an offset from the start of the window.
+     */
+    int start() {
+      return start;
+    }
+
+    /**
+     * Returns the end of the current occurrence as an offset from the start of the window.
+     */
+    int end() {
+      return end;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A room that meetings can be held in. A room's bookings are ordinary events that list the room's
+ * name among their attendees, so its calendar is indexed and merged like anyone else's. Rooms are
+ * considered read-only.
+ */
+public final class Room {
+  private final String name;
+  private final int capacity;
+  private final Set<String> resources = new HashSet<>();
+
+  /**
+   * Creates a new room.
+   *
+   * @param name The name the room's bookings list it under. Must be non-null.
+   * @param capacity The number of people the room seats. Must not be negative.
+   * @param resources The equipment in the room, such as a projector. Must be non-null.
+   */
+  public Room(String name, int capacity, Collection<String> resources) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity cannot be negative");
+    }
+
+    if (resources == null) {
+      throw new IllegalArgumentException("resources cannot be null. Use empty array instead.");
+    }
+
+    this.name = name;
+    this.capacity = capacity;
+    this.resources.addAll(resources);
+  }
+
+  /**
+   * Returns the name the room's bookings list it under.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the number of people the room seats.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns a read-only set of the equipment in the room.
+   */
+  public Set<String> getResources() {
+    return Collections.unmodifiableSet(resources);
+  }
+
+  @Override
+  public int hashCode() {
+    return name.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof Room && equals(this, (Room) other);
+  }
+
+  private static boolean equals(Room a, Room b) {
+    return a.name.equals(b.name) && a.capacity == b.capacity && a.resources.equals(b.resources);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Room: %s (%d)", name, capacity);
+  }
+}
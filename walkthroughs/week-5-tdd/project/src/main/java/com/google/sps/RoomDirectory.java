@@ -0,0 +1,94 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The rooms that meetings can be held in, ordered by capacity so that the rooms large enough for a
+ * meeting are found with a binary search and only those are checked for resources. A directory is
+ * read-only and safe to share between threads.
+ */
+public final class RoomDirectory {
+  private final Room[] rooms;
+  private final int[] capacities;
+
+  /**
+   * Creates a directory of {@code rooms}.
+   *
+   * @param rooms the rooms. Must be non-null.
+   */
+  public RoomDirectory(Collection<Room> rooms) {
+    if (rooms == null) {
+      throw new IllegalArgumentException("rooms cannot be null");
+    }
+
+    this.rooms = rooms.toArray(new Room[0]);
+    Arrays.sort(this.rooms, Comparator.comparingInt(Room::getCapacity));
+
+    capacities = new int[this.rooms.length];
+    for (int i = 0; i < this.rooms.length; i++) {
+      capacities[i] = this.rooms[i].getCapacity();
+    }
+  }
+
+  /**
+   * Returns the number of rooms.
+   */
+  public int size() {
+    return rooms.length;
+  }
+
+  /**
+   * Returns the rooms that seat at least {@code capacity} people and have every one of
+   * {@code resources}, smallest first.
+   */
+  public List<Room> getMatchingRooms(int capacity, Collection<String> resources) {
+    List<Room> matching = new ArrayList<>();
+
+    for (int i = firstWithCapacity(capacity); i < rooms.length; i++) {
+      if (rooms[i].getResources().containsAll(resources)) {
+        matching.add(rooms[i]);
+      }
+    }
+
+    return matching;
+  }
+
+  /**
+   * Returns the index of the first room that seats at least {@code capacity} people, or the
+   * number of rooms if none does.
+   */
+  private int firstWithCapacity(int capacity) {
+    int low = 0;
+    int high = capacities.length;
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+
+      if (capacities[middle] < capacity) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+}
@@ -0,0 +1,76 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * A range of time in which a meeting can be held in a specific room. Room time ranges are
+ * considered read-only.
+ */
+public final class RoomTimeRange {
+  private final Room room;
+  private final TimeRange when;
+
+  /**
+   * Creates a new room time range.
+   *
+   * @param room The room the meeting can be held in. Must be non-null.
+   * @param when The range of time in which the room and the attendees are free. Must be non-null.
+   */
+  public RoomTimeRange(Room room, TimeRange when) {
+    if (room == null) {
+      throw new IllegalArgumentException("room cannot be null");
+    }
+
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    this.room = room;
+    this.when = when;
+  }
+
+  /**
+   * Returns the room the meeting can be held in.
+   */
+  public Room getRoom() {
+    return room;
+  }
+
+  /**
+   * Returns the range of time in which the room and the attendees are free.
+   */
+  public TimeRange getWhen() {
+    return when;
+  }
+
+  @Override
+  public int hashCode() {
+    return room.hashCode() ^ when.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof RoomTimeRange && equals(this, (RoomTimeRange) other);
+  }
+
+  private static boolean equals(RoomTimeRange a, RoomTimeRange b) {
+    return a.room.equals(b.room) && a.when.equals(b.when);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s in %s", when, room);
+  }
+}
@@ -0,0 +1,107 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * Per-phase timings and input sizes recorded by {@link FindMeetingQuery}. Pass an instance to the
+ * query's constructor to enable recording; a query without one skips the clock reads entirely.
+ * One instance may be shared by queries running on many threads.
+ */
+public final class SchedulerMetrics {
+  /**
+   * The steps of answering a query, each timed in nanoseconds.
+   */
+  public enum Phase {
+    /** Scanning events for the ones the attendees go to, or setting their busy minutes. */
+    FILTER,
+    /** Sorting the attendees' busy intervals. */
+    SORT,
+    /** Merging overlapping busy intervals, or the union of indexed attendees' intervals. */
+    MERGE,
+    /** Turning busy intervals or minutes into free intervals. */
+    COMPLEMENT,
+    /** Intersecting the mandatory and optional attendees' free intervals. */
+    INTERSECT,
+    /** Counting how many invitees are busy at each possible start of the meeting. */
+    SWEEP,
+    /** Scoring candidate times and keeping the best ones. */
+    RANK,
+    /** The whole query, from request to answer. */
+    QUERY
+  }
+
+  /**
+   * The input and output sizes recorded for each computation of free time.
+   */
+  public enum Size {
+    /** The events scanned. */
+    EVENTS,
+    /**
+     * The busy intervals found. Scans of events count them before merging; queries that read
+     * already merged intervals, from an index, a snapshot or fork/join tasks, count them after.
+     */
+    BUSY_INTERVALS,
+    /** The free intervals returned. */
+    FREE_INTERVALS
+  }
+
+  private final Histogram[] phaseNanos = newHistograms(Phase.values().length);
+  private final Histogram[] sizes = newHistograms(Size.values().length);
+
+  /**
+   * Returns the histogram of the nanoseconds spent in {@code phase}.
+   */
+  public Histogram getPhaseNanos(Phase phase) {
+    return phaseNanos[phase.ordinal()];
+  }
+
+  /**
+   * Returns the histogram of {@code size}.
+   */
+  public Histogram getSizes(Size size) {
+    return sizes[size.ordinal()];
+  }
+
+  /**
+   * Forgets everything recorded so far.
+   */
+  public void reset() {
+    for (Histogram histogram : phaseNanos) {
+      histogram.reset();
+    }
+
+    for (Histogram histogram : sizes) {
+      histogram.reset();
+    }
+  }
+
+  void recordPhase(Phase phase, long nanos) {
+    phaseNanos[phase.ordinal()].record(nanos);
+  }
+
+  void recordSize(Size size, long value) {
+    sizes[size.ordinal()].record(value);
+  }
+
+  private static Histogram[] newHistograms(int count) {
+    Histogram[] histograms = new Histogram[count];
+
+    for (int i = 0; i < count; i++) {
+      histograms[i] = new Histogram();
+    }
+
+    return histograms;
+  }
+}
@@ -0,0 +1,59 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * Ranks candidate meeting times for {@link FindMeetingQuery#queryBest}. A higher score is better;
+ * candidates with equal scores are ranked by earlier start. Scorers are called once per candidate,
+ * so they take primitive arguments instead of a {@code TimeRange}.
+ */
+@FunctionalInterface
+public interface SlotScorer {
+  /**
+   * Scores a meeting from {@code start} to {@code end}.
+   *
+   * @param start the start of the meeting in minutes since the start of the day
+   * @param end the exclusive end of the meeting in minutes since the start of the day
+   * @param optionalConflicts the number of optional attendees who are busy during the meeting
+   * @return the score of the meeting. Must not be {@code NaN}.
+   */
+  double score(int start, int end, int optionalConflicts);
+
+  /**
+   * Prefers earlier meetings.
+   */
+  static SlotScorer earliestStart() {
+    return (start, end, optionalConflicts) -> -start;
+  }
+
+  /**
+   * Prefers meetings that the most optional attendees can attend, then earlier meetings.
+   */
+  static SlotScorer fewestOptionalConflicts() {
+    return (start, end, optionalConflicts) -> -optionalConflicts;
+  }
+
+  /**
+   * Prefers meetings that lie inside {@code window}, and otherwise the meetings with the fewest
+   * minutes outside it.
+   */
+  static SlotScorer preferredWindow(TimeRange window) {
+    int windowStart = window.start();
+    int windowEnd = window.end();
+
+    return (start, end, optionalConflicts) ->
+        -(Math.max(0, windowStart - start) + Math.max(0, end - windowEnd));
+  }
+}
@@ -0,0 +1,116 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * Keeps the {@code k} best-scoring meeting starts offered to it, in a binary heap whose root is the
+ * worst start kept so far. Offering a start costs {@code O(log k)} and candidates that can't make
+ * the cut are rejected after a single comparison, so memory stays {@code O(k)} however many
+ * candidates are offered. Ties are broken in favour of the earlier start.
+ */
+final class TopSlots {
+  private final double[] scores;
+  private final int[] starts;
+  private int size = 0;
+
+  TopSlots(int k) {
+    scores = new double[k];
+    starts = new int[k];
+  }
+
+  void offer(int start, double score) {
+    if (size < starts.length) {
+      scores[size] = score;
+      starts[size] = start;
+      siftUp(size++);
+      return;
+    }
+
+    if (size == 0 || !isBetter(score, start, scores[0], starts[0])) {
+      return;
+    }
+
+    scores[0] = score;
+    starts[0] = start;
+    siftDown(0);
+  }
+
+  /**
+   * Empties the heap and returns the kept starts, best first.
+   */
+  int[] drainBestFirst() {
+    int[] best = new int[size];
+
+    while (size > 0) {
+      best[size - 1] = starts[0];
+      size--;
+      scores[0] = scores[size];
+      starts[0] = starts[size];
+      siftDown(0);
+    }
+
+    return best;
+  }
+
+  private void siftUp(int index) {
+    while (index > 0) {
+      int parent = (index - 1) / 2;
+
+      if (!isBetter(scores[parent], starts[parent], scores[index], starts[index])) {
+        return;
+      }
+
+      swap(index, parent);
+      index = parent;
+    }
+  }
+
+  private void siftDown(int index) {
+    while (true) {
+      int worst = index;
+      int left = 2 * index + 1;
+      int right = left + 1;
+
+      if (left < size && isBetter(scores[worst], starts[worst], scores[left], starts[left])) {
+        worst = left;
+      }
+
+      if (right < size && isBetter(scores[worst], starts[worst], scores[right], starts[right])) {
+        worst = right;
+      }
+
+      if (worst == index) {
+        return;
+      }
+
+      swap(index, worst);
+      index = worst;
+    }
+  }
+
+  private void swap(int i, int j) {
+    double score = scores[i];
+    scores[i] = scores[j];
+    scores[j] = score;
+
+    int start = starts[i];
+    starts[i] = starts[j];
+    starts[j] = start;
+  }
+
+  private static boolean isBetter(double scoreA, int startA, double scoreB, int startB) {
+    return scoreA > scoreB || (scoreA == scoreB && startA < startB);
+  }
+}
@@ -0,0 +1,46 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.AvailabilityCache;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Reports the counters of the availability cache shared by the query servlets as JSON.
+ */
+@WebServlet("/availability-cache")
+public class AvailabilityCacheServlet extends HttpServlet {
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    AvailabilityCache cache = QueryServlet.AVAILABILITY_CACHE;
+
+    Map<String, Long> stats = new LinkedHashMap<>();
+    stats.put("hits", cache.getHitCount());
+    stats.put("misses", cache.getMissCount());
+    stats.put("evictions", cache.getEvictionCount());
+    stats.put("entries", (long) cache.size());
+    stats.put("weight", cache.getWeight());
+
+    // Send the JSON back as the response
+    response.setContentType("application/json");
+    response.getWriter().println(SchedulerGson.GSON.toJson(stats));
+  }
+}
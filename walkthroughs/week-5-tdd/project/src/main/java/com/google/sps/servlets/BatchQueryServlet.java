@@ -0,0 +1,75 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.reflect.TypeToken;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Answers a JSON array of meeting requests in one round trip. The response is a JSON array holding
+ * the available times for each request, in the same order.
+ */
+@WebServlet("/query-batch")
+public class BatchQueryServlet extends HttpServlet {
+  private static final Type MEETING_REQUESTS_TYPE =
+      new TypeToken<List<MeetingRequest>>() {}.getType();
+  private static final Type ANSWERS_TYPE =
+      new TypeToken<List<Collection<TimeRange>>>() {}.getType();
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    // Read the JSON into a list of MeetingRequests token by token.
+    List<MeetingRequest> meetingRequests =
+        SchedulerGson.GSON.fromJson(request.getReader(), MEETING_REQUESTS_TYPE);
+
+    for (MeetingRequest meetingRequest : meetingRequests) {
+      if (meetingRequest.isRoomRequired()) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, QueryServlet.ROOMS_NOT_SUPPORTED);
+        return;
+      }
+    }
+
+    // Find the possible meeting times for every request.
+    FindMeetingQuery findMeetingQuery = new FindMeetingQuery(
+        FindMeetingQuery.Algorithm.SORT_AND_MERGE, QueryServlet.AVAILABILITY_CACHE,
+        /* pool= */ null, QueryServlet.SCHEDULER_METRICS);
+    List<Collection<TimeRange>> answers;
+    if (QueryServlet.SNAPSHOT != null) {
+      answers = new ArrayList<>(meetingRequests.size());
+      for (MeetingRequest meetingRequest : meetingRequests) {
+        answers.add(findMeetingQuery.query(QueryServlet.SNAPSHOT, meetingRequest));
+      }
+    } else {
+      answers = findMeetingQuery.queryAll(
+          QueryServlet.EVENT_INDEX, meetingRequests, ForkJoinPool.commonPool());
+    }
+
+    // Stream the times back as JSON without building the whole response first.
+    response.setContentType("application/json");
+    SchedulerGson.GSON.toJson(answers, ANSWERS_TYPE, response.getWriter());
+  }
+}
@@ -0,0 +1,118 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.reflect.TypeToken;
+import com.google.sps.Event;
+import com.google.sps.Events;
+import com.google.sps.IntervalTree;
+import com.google.sps.TimeRange;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Answers which events overlap a proposed time for a group of people. The request body is
+ * {@code {"attendees": [...], "when": {"start": ..., "duration": ...}}} and the response is a JSON
+ * array of the conflicting events, ordered by start time.
+ */
+@WebServlet("/check-conflicts")
+public class ConflictCheckServlet extends HttpServlet {
+  private static final Type EVENTS_TYPE = new TypeToken<Collection<Event>>() {}.getType();
+
+  // The events never change at runtime, so build one interval tree per attendee once. A configured
+  // snapshot is read in place instead, so the trees are left empty.
+  static final Map<String, IntervalTree<Event>> EVENTS_BY_ATTENDEE = indexByAttendee(
+      QueryServlet.SNAPSHOT == null ? Arrays.asList(Events.events) : Collections.emptyList());
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    ConflictRequest conflictRequest =
+        SchedulerGson.GSON.fromJson(request.getReader(), ConflictRequest.class);
+
+    if (conflictRequest == null || conflictRequest.when == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "when is required");
+      return;
+    }
+
+    Collection<String> attendees = conflictRequest.attendees == null
+        ? Collections.emptyList()
+        : conflictRequest.attendees;
+    List<Event> conflicts = QueryServlet.SNAPSHOT != null
+        ? QueryServlet.SNAPSHOT.getOverlappingEvents(attendees, conflictRequest.when)
+        : findConflicts(EVENTS_BY_ATTENDEE, attendees, conflictRequest.when);
+
+    response.setContentType("application/json");
+    SchedulerGson.GSON.toJson(conflicts, EVENTS_TYPE, response.getWriter());
+  }
+
+  /**
+   * Returns the events attended by any of {@code attendees} that overlap {@code when}, each event
+   * once and ordered by start time.
+   */
+  static List<Event> findConflicts(Map<String, IntervalTree<Event>> eventsByAttendee,
+      Collection<String> attendees, TimeRange when) {
+    if (attendees == null) {
+      return Collections.emptyList();
+    }
+
+    // An event shared by several attendees is found once per attendee.
+    Set<Event> conflicts = new LinkedHashSet<>();
+    for (String attendee : attendees) {
+      IntervalTree<Event> events = eventsByAttendee.get(attendee);
+
+      if (events != null) {
+        conflicts.addAll(events.overlapping(when));
+      }
+    }
+
+    List<Event> sorted = new ArrayList<>(conflicts);
+    sorted.sort((a, b) -> TimeRange.ORDER_BY_START.compare(a.getWhen(), b.getWhen()));
+    return sorted;
+  }
+
+  static Map<String, IntervalTree<Event>> indexByAttendee(Collection<Event> events) {
+    Map<String, IntervalTree<Event>> eventsByAttendee = new HashMap<>();
+
+    for (Event event : events) {
+      for (String attendee : event.getAttendees()) {
+        eventsByAttendee.computeIfAbsent(attendee, key -> new IntervalTree<>())
+            .add(event.getWhen(), event);
+      }
+    }
+
+    return eventsByAttendee;
+  }
+
+  /**
+   * The JSON body of a conflict check.
+   */
+  private static final class ConflictRequest {
+    private List<String> attendees;
+    private TimeRange when;
+  }
+}
@@ -14,23 +14,205 @@
 
 package com.google.sps.servlets;
 
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.CalendarSnapshot;
 import com.google.sps.Events;
-import com.google.gson.Gson;
+import com.google.sps.TimeRange;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+/**
+ * Serves the scheduler's events as JSON. The events never change at runtime, so the response is
+ * serialized once, along with a gzipped copy, when the servlet starts. A configured snapshot is
+ * serialized straight from its buffer. Each copy has a strong
+ * {@code ETag} so that clients polling with {@code If-None-Match} get an empty 304 response.
+ */
 @WebServlet("/get-events")
 public class GetEventsServlet extends HttpServlet {
+  private byte[] json;
+  private byte[] gzippedJson;
+  private String jsonETag;
+  private String gzippedJsonETag;
+
+  @Override
+  public void init() throws ServletException {
+    try {
+      String jsonResponse = QueryServlet.SNAPSHOT == null
+          ? SchedulerGson.GSON.toJson(Events.events)
+          : toJson(QueryServlet.SNAPSHOT);
+      json = (jsonResponse + "\n").getBytes(StandardCharsets.UTF_8);
+      gzippedJson = gzip(json);
+    } catch (IOException e) {
+      throw new ServletException("Could not serialize the events", e);
+    }
+
+    // Both copies share a digest, but a strong ETag must differ between encodings.
+    String digest = digest(json);
+    jsonETag = "\"" + digest + "\"";
+    gzippedJsonETag = "\"" + digest + "-gzip\"";
+  }
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-    String jsonResponse = gson.toJson(Events.events);
+    boolean gzip = acceptsGzip(request.getHeader("Accept-Encoding"));
+    byte[] body = gzip ? gzippedJson : json;
+    String etag = gzip ? gzippedJsonETag : jsonETag;
+
+    response.setHeader("ETag", etag);
+    response.setHeader("Vary", "Accept-Encoding");
+    // Let clients keep the response but make them check that it is still current.
+    response.setHeader("Cache-Control", "no-cache");
+
+    if (matchesETag(request.getHeader("If-None-Match"), etag)) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
 
     // Send the JSON back as the response
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    response.setCharacterEncoding("UTF-8");
+    if (gzip) {
+      response.setHeader("Content-Encoding", "gzip");
+    }
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+
+  /**
+   * Serializes the events in {@code snapshot} in the same shape as {@code Event}s, reading each
+   * field from the mapped buffer rather than building the events first.
+   */
+  static String toJson(CalendarSnapshot snapshot) throws IOException {
+    StringWriter out = new StringWriter();
+    JsonWriter writer = SchedulerGson.GSON.newJsonWriter(out);
+
+    writer.beginArray();
+    for (int i = 0; i < snapshot.size(); i++) {
+      writer.beginObject();
+      writer.name("title").value(snapshot.getTitle(i));
+      writer.name("when");
+      SchedulerGson.GSON.toJson(snapshot.getWhen(i), TimeRange.class, writer);
+      writer.name("attendees").beginArray();
+      for (String attendee : snapshot.getAttendees(i)) {
+        writer.value(attendee);
+      }
+      writer.endArray();
+      writer.endObject();
+    }
+    writer.endArray();
+    writer.flush();
+
+    return out.toString();
+  }
+
+  /**
+   * Checks whether an {@code Accept-Encoding} header allows a gzipped response. Every coding is
+   * read, since an explicit {@code gzip} entry overrides {@code *} wherever it appears.
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+
+    double gzipQuality = -1;
+    double wildcardQuality = -1;
+
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parameters = coding.split(";");
+      String name = parameters[0].trim();
+
+      if (name.equalsIgnoreCase("gzip")) {
+        gzipQuality = quality(parameters);
+      } else if (name.equals("*")) {
+        wildcardQuality = quality(parameters);
+      }
+    }
+
+    // A quality of zero means that the encoding is not acceptable.
+    return gzipQuality >= 0 ? gzipQuality > 0 : wildcardQuality > 0;
+  }
+
+  /**
+   * Returns the {@code q} parameter of a coding, 1 if it has none, or 0 if it is malformed.
+   */
+  private static double quality(String[] parameters) {
+    for (int i = 1; i < parameters.length; i++) {
+      String parameter = parameters[i].trim();
+
+      if (parameter.startsWith("q=")) {
+        try {
+          return Math.max(0, Double.parseDouble(parameter.substring(2)));
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+
+    return 1;
+  }
+
+  /**
+   * Checks whether an {@code If-None-Match} header matches {@code etag}. Following RFC 7232, the
+   * comparison is weak, so {@code W/} prefixes are ignored.
+   */
+  static boolean matchesETag(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+
+      if (candidate.equals("*")) {
+        return true;
+      }
+
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+
+      if (candidate.equals(etag)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static byte[] gzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(bytes);
+    }
+
+    return compressed.toByteArray();
+  }
+
+  private static String digest(byte[] bytes) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+      StringBuilder hex = new StringBuilder();
+
+      // Half of the digest is plenty to tell versions apart.
+      for (int i = 0; i < hash.length / 2; i++) {
+        hex.append(String.format("%02x", hash[i]));
+      }
+
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
   }
 }
@@ -0,0 +1,133 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.MeetingRequest;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes {@code MeetingRequest}s token by token, without reflection. Missing attendee
+ * lists are treated as empty. A request needs a room if it has a room capacity or any required
+ * resources. The adapter holds no state and is safe to share between threads.
+ */
+final class MeetingRequestAdapter extends TypeAdapter<MeetingRequest> {
+  private static final String ATTENDEES = "attendees";
+  private static final String OPTIONAL_ATTENDEES = "optional_attendees";
+  private static final String DURATION = "duration";
+  private static final String ROOM_CAPACITY = "room_capacity";
+  private static final String REQUIRED_RESOURCES = "required_resources";
+
+  @Override
+  public MeetingRequest read(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return null;
+    }
+
+    List<String> attendees = new ArrayList<>();
+    List<String> optionalAttendees = new ArrayList<>();
+    long duration = 0;
+    Integer roomCapacity = null;
+    List<String> requiredResources = new ArrayList<>();
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case ATTENDEES:
+          readStrings(reader, attendees);
+          break;
+        case OPTIONAL_ATTENDEES:
+          readStrings(reader, optionalAttendees);
+          break;
+        case DURATION:
+          duration = reader.nextLong();
+          break;
+        case ROOM_CAPACITY:
+          roomCapacity = reader.nextInt();
+          break;
+        case REQUIRED_RESOURCES:
+          readStrings(reader, requiredResources);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    MeetingRequest request = new MeetingRequest(attendees, duration);
+    for (String attendee : optionalAttendees) {
+      request.addOptionalAttendee(attendee);
+    }
+
+    if (roomCapacity != null) {
+      request.requireRoom(roomCapacity);
+    }
+
+    for (String resource : requiredResources) {
+      request.addRequiredResource(resource);
+    }
+
+    return request;
+  }
+
+  @Override
+  public void write(JsonWriter writer, MeetingRequest request) throws IOException {
+    if (request == null) {
+      writer.nullValue();
+      return;
+    }
+
+    writer.beginObject();
+    writer.name(ATTENDEES);
+    writeStrings(writer, request.getAttendees());
+    writer.name(OPTIONAL_ATTENDEES);
+    writeStrings(writer, request.getOptionalAttendees());
+    writer.name(DURATION).value(request.getDuration());
+    if (request.isRoomRequired()) {
+      writer.name(ROOM_CAPACITY).value(request.getRoomCapacity());
+      writer.name(REQUIRED_RESOURCES);
+      writeStrings(writer, request.getRequiredResources());
+    }
+    writer.endObject();
+  }
+
+  private static void readStrings(JsonReader reader, List<String> strings) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return;
+    }
+
+    reader.beginArray();
+    while (reader.hasNext()) {
+      strings.add(reader.nextString());
+    }
+    reader.endArray();
+  }
+
+  private static void writeStrings(JsonWriter writer, Iterable<String> strings)
+      throws IOException {
+    writer.beginArray();
+    for (String string : strings) {
+      writer.value(string);
+    }
+    writer.endArray();
+  }
+}
@@ -14,14 +14,20 @@
 
 package com.google.sps.servlets;
 
+import com.google.sps.AvailabilityCache;
+import com.google.sps.CalendarSnapshot;
+import com.google.sps.EventIndex;
 import com.google.sps.Events;
 import com.google.sps.FindMeetingQuery;
 import com.google.sps.MeetingRequest;
+import com.google.sps.SchedulerMetrics;
 import com.google.sps.TimeRange;
-import com.google.gson.Gson;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -29,23 +35,62 @@ import javax.servlet.http.HttpServletResponse;
 
 @WebServlet("/query")
 public class QueryServlet extends HttpServlet {
+  // The system property naming a calendar snapshot to serve instead of Events.events.
+  static final String SNAPSHOT_PROPERTY = "sps.calendar.snapshot";
+
+  // Mapped rather than parsed, so a cold instance answers its first query without building events.
+  // Null if no snapshot is configured.
+  static final CalendarSnapshot SNAPSHOT = openSnapshot(System.getProperty(SNAPSHOT_PROPERTY));
+
+  // The events never change at runtime, so index them once by attendee.
+  static final EventIndex EVENT_INDEX =
+      new EventIndex(SNAPSHOT == null ? Arrays.asList(Events.events) : Collections.emptyList());
+
+  // Shared by every request, so that repeated queries for the same attendees are answered from
+  // memory.
+  static final AvailabilityCache AVAILABILITY_CACHE =
+      new AvailabilityCache(/* maxWeight= */ 100000);
+
+  // Shared by every query servlet and reported by SchedulerMetricsServlet.
+  static final SchedulerMetrics SCHEDULER_METRICS = new SchedulerMetrics();
+
+  static final String ROOMS_NOT_SUPPORTED = "room requirements are not supported";
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
+    // Read the JSON into an instance of MeetingRequest token by token.
+    MeetingRequest meetingRequest =
+        SchedulerGson.GSON.fromJson(request.getReader(), MeetingRequest.class);
 
-    // Convert the JSON to an instance of MeetingRequest.
-    MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
+    // Rooms are only supported by FindMeetingQuery itself for now, since no room directory is
+    // served. Refuse the request rather than answer it as if no room were needed.
+    if (meetingRequest.isRoomRequired()) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, ROOMS_NOT_SUPPORTED);
+      return;
+    }
 
     // Find the possible meeting times.
-    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
-    Collection<TimeRange> answer =
-        findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
-
-    // Convert the times to JSON
-    String jsonResponse = gson.toJson(answer);
+    FindMeetingQuery findMeetingQuery = new FindMeetingQuery(
+        FindMeetingQuery.Algorithm.SORT_AND_MERGE, AVAILABILITY_CACHE, /* pool= */ null,
+        SCHEDULER_METRICS);
+    Collection<TimeRange> answer = SNAPSHOT != null
+        ? findMeetingQuery.query(SNAPSHOT, meetingRequest)
+        : findMeetingQuery.query(EVENT_INDEX, meetingRequest);
 
-    // Send the JSON back as the response
+    // Stream the times back as JSON without building the whole response first.
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    SchedulerGson.GSON.toJson(answer, SchedulerGson.TIME_RANGES_TYPE, response.getWriter());
+  }
+
+  private static CalendarSnapshot openSnapshot(String path) {
+    if (path == null) {
+      return null;
+    }
+
+    try {
+      return CalendarSnapshot.open(Paths.get(path));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not open the calendar snapshot " + path, e);
+    }
   }
 }
@@ -0,0 +1,38 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * Holds the {@code Gson} instance shared by the scheduler servlets. {@code Gson} is thread-safe,
+ * so building it once avoids paying for its setup on every request.
+ */
+final class SchedulerGson {
+  static final Gson GSON = new GsonBuilder()
+      .registerTypeAdapter(MeetingRequest.class, new MeetingRequestAdapter())
+      .registerTypeAdapter(TimeRange.class, new TimeRangeAdapter())
+      .create();
+
+  static final Type TIME_RANGES_TYPE = new TypeToken<Collection<TimeRange>>() {}.getType();
+
+  private SchedulerGson() {}
+}
@@ -0,0 +1,67 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.Histogram;
+import com.google.sps.SchedulerMetrics;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Reports the per-phase latencies (in nanoseconds) and input sizes recorded by the query servlets
+ * as JSON. Each histogram is summarized by its count, mean, 50th, 90th and 99th percentiles and
+ * maximum.
+ */
+@WebServlet("/scheduler-metrics")
+public class SchedulerMetricsServlet extends HttpServlet {
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    SchedulerMetrics metrics = QueryServlet.SCHEDULER_METRICS;
+
+    Map<String, Map<String, Number>> phases = new LinkedHashMap<>();
+    for (SchedulerMetrics.Phase phase : SchedulerMetrics.Phase.values()) {
+      phases.put(phase.name().toLowerCase(Locale.ROOT), summarize(metrics.getPhaseNanos(phase)));
+    }
+
+    Map<String, Map<String, Number>> sizes = new LinkedHashMap<>();
+    for (SchedulerMetrics.Size size : SchedulerMetrics.Size.values()) {
+      sizes.put(size.name().toLowerCase(Locale.ROOT), summarize(metrics.getSizes(size)));
+    }
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("phase_nanos", phases);
+    report.put("sizes", sizes);
+
+    response.setContentType("application/json");
+    response.getWriter().println(SchedulerGson.GSON.toJson(report));
+  }
+
+  static Map<String, Number> summarize(Histogram histogram) {
+    Map<String, Number> summary = new LinkedHashMap<>();
+    summary.put("count", histogram.getCount());
+    summary.put("mean", histogram.getMean());
+    summary.put("p50", histogram.getValueAtPercentile(50));
+    summary.put("p90", histogram.getValueAtPercentile(90));
+    summary.put("p99", histogram.getValueAtPercentile(99));
+    summary.put("max", histogram.getMax());
+    return summary;
+  }
+}
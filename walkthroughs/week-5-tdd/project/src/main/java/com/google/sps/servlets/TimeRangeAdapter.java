@@ -0,0 +1,73 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.TimeRange;
+import java.io.IOException;
+
+/**
+ * Reads and writes {@code TimeRange}s as {@code {"start": ..., "duration": ...}}, the shape the
+ * page's script expects, without reflection. The adapter holds no state and is safe to share
+ * between threads.
+ */
+final class TimeRangeAdapter extends TypeAdapter<TimeRange> {
+  private static final String START = "start";
+  private static final String DURATION = "duration";
+
+  @Override
+  public TimeRange read(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return null;
+    }
+
+    int start = 0;
+    int duration = 0;
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case START:
+          start = reader.nextInt();
+          break;
+        case DURATION:
+          duration = reader.nextInt();
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    return TimeRange.fromStartDuration(start, duration);
+  }
+
+  @Override
+  public void write(JsonWriter writer, TimeRange range) throws IOException {
+    if (range == null) {
+      writer.nullValue();
+      return;
+    }
+
+    writer.beginObject();
+    writer.name(START).value(range.start());
+    writer.name(DURATION).value(range.duration());
+    writer.endObject();
+  }
+}
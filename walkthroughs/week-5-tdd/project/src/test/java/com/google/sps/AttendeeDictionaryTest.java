@@ -0,0 +1,102 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeDictionaryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int DURATION_30_MINUTES = 30;
+
+  @Test
+  public void internAssignsDenseStableIds() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+    Assert.assertEquals(1, dictionary.intern(PERSON_B));
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+    Assert.assertEquals(2, dictionary.size());
+    Assert.assertEquals(PERSON_B, dictionary.nameOf(1));
+  }
+
+  @Test
+  public void internedCollectionsAreSortedWithoutDuplicates() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    dictionary.intern(PERSON_C);
+    dictionary.intern(PERSON_B);
+
+    int[] actual = dictionary.intern(Arrays.asList(PERSON_A, PERSON_B, PERSON_C, PERSON_B));
+
+    Assert.assertArrayEquals(new int[] {0, 1, 2}, actual);
+  }
+
+  @Test
+  public void unknownNamesAreSkipped() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    dictionary.intern(PERSON_B);
+
+    Assert.assertEquals(AttendeeDictionary.UNKNOWN, dictionary.idOf(PERSON_A));
+    Assert.assertArrayEquals(new int[] {0}, dictionary.idsOf(Arrays.asList(PERSON_A, PERSON_B)));
+    Assert.assertEquals(1, dictionary.size());
+  }
+
+  @Test
+  public void compactEventKeepsTimeAndAttendees() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    Event event = new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_B, PERSON_A));
+
+    CompactEvent compact = dictionary.compact(event);
+
+    Assert.assertEquals(event.getTitle(), compact.getTitle());
+    Assert.assertEquals(event.getWhen(), compact.getWhen());
+    Assert.assertArrayEquals(new int[] {0, 1}, compact.getAttendeeIds());
+    Assert.assertTrue(compact.isAttendedByAny(dictionary.idsOf(Arrays.asList(PERSON_A))));
+    Assert.assertFalse(compact.isAttendedByAny(dictionary.idsOf(Arrays.asList(PERSON_C))));
+  }
+
+  @Test
+  public void compactQueryMatchesEventQuery() {
+    List<String> people = CalendarGenerator.people(20);
+
+    for (FindMeetingQuery.Algorithm algorithm : FindMeetingQuery.Algorithm.values()) {
+      FindMeetingQuery query = new FindMeetingQuery(algorithm);
+
+      RandomizedDifferential.check(/* seed= */ 11, /* trials= */ 100,
+          random -> {
+            CalendarGenerator.Scenario scenario = CalendarGenerator.scenario(random, people);
+            scenario.request.addOptionalAttendee("Nobody");
+            return scenario;
+          },
+          scenario -> query.query(scenario.events, scenario.request),
+          scenario -> {
+            AttendeeDictionary dictionary = new AttendeeDictionary();
+            return query.query(dictionary.compact(scenario.events), dictionary, scenario.request);
+          });
+    }
+  }
+}
@@ -0,0 +1,115 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AvailabilityCacheTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  private static final FindMeetingQuery.Algorithm SORT_AND_MERGE =
+      FindMeetingQuery.Algorithm.SORT_AND_MERGE;
+
+  @Test
+  public void repeatedQueriesHitTheCache() {
+    AvailabilityCache cache = new AvailabilityCache(/* maxWeight= */ 1000);
+    FindMeetingQuery query =
+        new FindMeetingQuery(FindMeetingQuery.Algorithm.SORT_AND_MERGE, cache);
+    EventIndex index = new EventIndex(Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A))));
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+
+    Collection<TimeRange> first = query.query(index, request);
+    Collection<TimeRange> second = query.query(index, request);
+
+    Assert.assertEquals(first, second);
+    // Each query looks up the optional and the mandatory attendees.
+    Assert.assertEquals(2, cache.getMissCount());
+    Assert.assertEquals(2, cache.getHitCount());
+  }
+
+  @Test
+  public void changingEventsInvalidatesEntries() {
+    AvailabilityCache cache = new AvailabilityCache(/* maxWeight= */ 1000);
+    FindMeetingQuery query =
+        new FindMeetingQuery(FindMeetingQuery.Algorithm.SORT_AND_MERGE, cache);
+    EventIndex index = new EventIndex();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), query.query(index, request));
+
+    index.add(new Event("Event 1", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_A)));
+
+    Collection<TimeRange> actual = query.query(index, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM + DURATION_30_MINUTES, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertEquals(0, cache.getHitCount());
+  }
+
+  @Test
+  public void algorithmsDoNotShareEntries() {
+    // The algorithms disagree on zero-length events, so neither may answer from the other's entry.
+    AvailabilityCache cache = new AvailabilityCache(/* maxWeight= */ 1000);
+    FindMeetingQuery sortAndMerge = new FindMeetingQuery(SORT_AND_MERGE, cache);
+    FindMeetingQuery minuteBitmap =
+        new FindMeetingQuery(FindMeetingQuery.Algorithm.MINUTE_BITMAP, cache);
+    EventIndex index = new EventIndex(Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0900AM, 0), Arrays.asList(PERSON_A))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Collection<TimeRange> split = sortAndMerge.query(index, request);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), minuteBitmap.query(index, request));
+    Assert.assertEquals(split, sortAndMerge.query(index, request));
+    Assert.assertEquals(2, split.size());
+  }
+
+  @Test
+  public void leastRecentlyUsedEntriesAreEvicted() {
+    // Every entry below weighs 8 + 1 interval + 1 attendee = 10.
+    AvailabilityCache cache = new AvailabilityCache(/* maxWeight= */ 20);
+    long[] intervals = {Intervals.pack(0, 60)};
+
+    cache.get(1, SORT_AND_MERGE, Arrays.asList(PERSON_A), DURATION_30_MINUTES, () -> intervals);
+    cache.get(1, SORT_AND_MERGE, Arrays.asList(PERSON_B), DURATION_30_MINUTES, () -> intervals);
+    // Touch A so that B becomes the least recently used entry.
+    cache.get(1, SORT_AND_MERGE, Arrays.asList(PERSON_A), DURATION_30_MINUTES, () -> intervals);
+    cache.get(2, SORT_AND_MERGE, Arrays.asList(PERSON_A), DURATION_30_MINUTES, () -> intervals);
+    cache.get(1, SORT_AND_MERGE, Arrays.asList(PERSON_A), DURATION_30_MINUTES, () -> intervals);
+
+    Assert.assertEquals(2, cache.size());
+    Assert.assertEquals(20, cache.getWeight());
+    Assert.assertEquals(1, cache.getEvictionCount());
+    Assert.assertEquals(2, cache.getHitCount());
+  }
+}
@@ -0,0 +1,208 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AvailabilitySweepTest {
+  private static final int DAY = TimeRange.WHOLE_DAY.duration();
+
+  @Test
+  public void overlappingBusyIntervalsOfOneAttendeeCountOnce() {
+    // Both intervals block starts in [10, 50) once they are widened by the 20 minute duration.
+    List<long[]> busy = Arrays.asList(new long[] {Intervals.pack(30, 40), Intervals.pack(41, 50)});
+
+    AvailabilitySweep.Segments segments = AvailabilitySweep.countConflicts(busy, 20, 100);
+
+    Assert.assertArrayEquals(
+        new long[] {Intervals.pack(0, 11), Intervals.pack(11, 50), Intervals.pack(50, 100)},
+        Arrays.copyOf(segments.intervals, segments.size));
+    Assert.assertArrayEquals(new int[] {0, 1, 0}, Arrays.copyOf(segments.conflicts, segments.size));
+  }
+
+  @Test
+  public void matchesBruteForceOnRandomCalendars() {
+    List<String> people = CalendarGenerator.people(10);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    RandomizedDifferential.check(/* seed= */ 11, /* trials= */ 100,
+        random -> CalendarGenerator.scenario(random, people),
+        scenario -> bruteForce(scenario.events, scenario.request),
+        scenario -> query.queryMaximizingOptionalAttendees(scenario.events, scenario.request));
+  }
+
+  @Test
+  public void bestSlotsMatchRankingEveryCandidate() {
+    List<String> people = CalendarGenerator.people(10);
+    FindMeetingQuery query = new FindMeetingQuery();
+    SlotScorer scorer = (start, end, optionalConflicts) -> -optionalConflicts - (start % 97) / 97.0;
+
+    int[][] kAndSteps = {{1, 1}, {5, 7}, {10, 30}};
+    for (int[] kAndStep : kAndSteps) {
+      int k = kAndStep[0];
+      int step = kAndStep[1];
+
+      RandomizedDifferential.check(/* seed= */ 13, /* trials= */ 40,
+          random -> CalendarGenerator.scenario(random, people),
+          scenario -> rankEveryCandidate(scenario.events, scenario.request, k, step, scorer),
+          scenario -> query.queryBest(scenario.events, scenario.request, k, step, scorer));
+    }
+  }
+
+  @Test
+  public void quorumMatchesCountingEveryStart() {
+    List<String> people = CalendarGenerator.people(8);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    for (int quorum : new int[] {0, 1, 4, people.size()}) {
+      RandomizedDifferential.check(/* seed= */ 19, /* trials= */ 25,
+          random -> CalendarGenerator.scenario(random, people),
+          scenario -> countEveryStart(
+              scenario.events, people, quorum, (int) scenario.request.getDuration()),
+          scenario -> query.queryQuorum(
+              scenario.events, people, quorum, scenario.request.getDuration()));
+    }
+  }
+
+  /**
+   * Tries every start minute and keeps the ones that the most optional attendees can attend.
+   */
+  private static List<TimeRange> bruteForce(Collection<Event> events, MeetingRequest request) {
+    int duration = (int) request.getDuration();
+    int[] optionalAttendance = new int[DAY];
+    int mostAttendees = -1;
+
+    for (int start = 0; start + duration <= DAY; start++) {
+      TimeRange meeting = TimeRange.fromStartDuration(start, duration);
+      optionalAttendance[start] = -1;
+
+      if (!isFree(events, request.getAttendees(), meeting)) {
+        continue;
+      }
+
+      int attendees = 0;
+      for (String attendee : request.getOptionalAttendees()) {
+        if (isFree(events, Arrays.asList(attendee), meeting)) {
+          attendees++;
+        }
+      }
+
+      optionalAttendance[start] = attendees;
+      mostAttendees = Math.max(mostAttendees, attendees);
+    }
+
+    List<TimeRange> ranges = new ArrayList<>();
+    int runStart = -1;
+
+    for (int start = 0; start <= DAY - duration + 1; start++) {
+      boolean best = start <= DAY - duration && mostAttendees >= 0
+          && optionalAttendance[start] == mostAttendees;
+
+      if (best && runStart < 0) {
+        runStart = start;
+      } else if (!best && runStart >= 0) {
+        ranges.add(TimeRange.fromStartEnd(runStart, start - 1 + duration, false));
+        runStart = -1;
+      }
+    }
+
+    return ranges;
+  }
+
+  /**
+   * Scores every {@code step}-th start at which the required attendees are free, and returns the
+   * {@code k} best.
+   */
+  private static List<TimeRange> rankEveryCandidate(Collection<Event> events,
+      MeetingRequest request, int k, int step, SlotScorer scorer) {
+    int duration = (int) request.getDuration();
+    List<double[]> candidates = new ArrayList<>();
+
+    for (int start = 0; start + duration <= DAY; start += step) {
+      TimeRange slot = TimeRange.fromStartDuration(start, duration);
+      if (!isFree(events, request.getAttendees(), slot)) {
+        continue;
+      }
+
+      int conflicts = 0;
+      for (String attendee : request.getOptionalAttendees()) {
+        conflicts += isFree(events, Arrays.asList(attendee), slot) ? 0 : 1;
+      }
+      candidates.add(new double[] {scorer.score(start, slot.end(), conflicts), start});
+    }
+    candidates.sort(
+        (a, b) -> a[0] != b[0] ? Double.compare(b[0], a[0]) : Double.compare(a[1], b[1]));
+
+    List<TimeRange> best = new ArrayList<>();
+    for (double[] candidate : candidates.subList(0, Math.min(k, candidates.size()))) {
+      best.add(TimeRange.fromStartDuration((int) candidate[1], duration));
+    }
+
+    return best;
+  }
+
+  /**
+   * Marks every start at which at least {@code quorum} of {@code invitees} are free, then joins
+   * the runs of marked starts.
+   */
+  private static List<TimeRange> countEveryStart(
+      Collection<Event> events, List<String> invitees, int quorum, int duration) {
+    List<TimeRange> ranges = new ArrayList<>();
+    int runStart = -1;
+
+    for (int start = 0; start <= DAY - duration + 1; start++) {
+      boolean quorumFree = false;
+
+      if (start <= DAY - duration) {
+        TimeRange meeting = TimeRange.fromStartDuration(start, duration);
+        int free = 0;
+        for (String invitee : invitees) {
+          free += isFree(events, Arrays.asList(invitee), meeting) ? 1 : 0;
+        }
+        quorumFree = free >= quorum;
+      }
+
+      if (quorumFree && runStart < 0) {
+        runStart = start;
+      } else if (!quorumFree && runStart >= 0) {
+        ranges.add(TimeRange.fromStartEnd(runStart, start - 1 + duration, false));
+        runStart = -1;
+      }
+    }
+
+    return ranges;
+  }
+
+  private static boolean isFree(
+      Collection<Event> events, Collection<String> attendees, TimeRange meeting) {
+    for (Event event : events) {
+      if (event.getWhen().overlaps(meeting)
+          && event.getAttendees().stream().anyMatch(attendees::contains)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+}
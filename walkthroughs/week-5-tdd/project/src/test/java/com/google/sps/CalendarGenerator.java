@@ -0,0 +1,109 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds synthetic single-day calendars for randomized tests and benchmarks.
+ */
+final class CalendarGenerator {
+  private static final int MAX_EVENT_DURATION = 120;
+
+  private CalendarGenerator() {}
+
+  /**
+   * Returns the names of {@code count} distinct people.
+   */
+  static List<String> people(int count) {
+    List<String> people = new ArrayList<>(count);
+
+    for (int i = 0; i < count; i++) {
+      people.add("Person " + i);
+    }
+
+    return people;
+  }
+
+  /**
+   * Creates {@code eventsPerPerson} events for every person. Each event is attended by its owner
+   * and, with a small probability, by one other random person.
+   */
+  static List<Event> events(Random random, List<String> people, int eventsPerPerson) {
+    List<Event> events = new ArrayList<>(people.size() * eventsPerPerson);
+
+    for (String person : people) {
+      for (int i = 0; i < eventsPerPerson; i++) {
+        int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+        int duration = 1 + random.nextInt(
+            Math.min(MAX_EVENT_DURATION, TimeRange.WHOLE_DAY.duration() - start));
+        List<String> attendees = random.nextInt(4) == 0
+            ? Arrays.asList(person, people.get(random.nextInt(people.size())))
+            : Arrays.asList(person);
+
+        events.add(new Event(person + " event " + i,
+            TimeRange.fromStartDuration(start, duration), attendees));
+      }
+    }
+
+    return events;
+  }
+
+  /**
+   * Creates a request with {@code mandatory} required and {@code optional} optional attendees
+   * picked at random from {@code people}.
+   */
+  static MeetingRequest request(
+      Random random, List<String> people, int mandatory, int optional, int duration) {
+    List<String> shuffled = new ArrayList<>(people);
+    Collections.shuffle(shuffled, random);
+
+    MeetingRequest request = new MeetingRequest(shuffled.subList(0, mandatory), duration);
+
+    for (String attendee : shuffled.subList(mandatory, mandatory + optional)) {
+      request.addOptionalAttendee(attendee);
+    }
+
+    return request;
+  }
+
+  /**
+   * Creates a scenario with one to six events for every one of {@code people}, who must be at
+   * least six, and a request of up to two hours for up to three required and three optional
+   * attendees.
+   */
+  static Scenario scenario(Random random, List<String> people) {
+    List<Event> events = events(random, people, 1 + random.nextInt(6));
+    MeetingRequest request =
+        request(random, people, random.nextInt(4), random.nextInt(4), 1 + random.nextInt(120));
+
+    return new Scenario(events, request);
+  }
+
+  /** A calendar and a meeting to schedule on it. */
+  static final class Scenario {
+    final List<Event> events;
+    final MeetingRequest request;
+
+    Scenario(List<Event> events, MeetingRequest request) {
+      this.events = events;
+      this.request = request;
+    }
+  }
+}
@@ -0,0 +1,172 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CalendarSnapshotTest {
+  @Test
+  public void eventsRoundTrip() throws IOException {
+    List<Event> events = Arrays.asList(Events.events);
+    CalendarSnapshot snapshot = CalendarSnapshot.wrap(ByteBuffer.wrap(toBytes(events)));
+
+    Set<Event> actual = new HashSet<>();
+    for (int i = 0; i < snapshot.size(); i++) {
+      actual.add(snapshot.getEvent(i));
+
+      if (i > 0) {
+        Assert.assertTrue(snapshot.getEvent(i - 1).getWhen().start()
+            <= snapshot.getEvent(i).getWhen().start());
+      }
+    }
+
+    Assert.assertEquals(new HashSet<>(events), actual);
+  }
+
+  @Test
+  public void namesAreFoundByBinarySearch() throws IOException {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(0, 30),
+            Arrays.asList("Zo\u00eb", "Ada")),
+        new Event("Event 2", TimeRange.fromStartDuration(60, 30), Arrays.asList("Mia")));
+    CalendarSnapshot snapshot = CalendarSnapshot.wrap(ByteBuffer.wrap(toBytes(events)));
+
+    Assert.assertEquals(3, snapshot.getAttendeeCount());
+    Assert.assertEquals(0, snapshot.idOf("Ada"));
+    Assert.assertEquals(2, snapshot.idOf("Zo\u00eb"));
+    Assert.assertEquals(AttendeeDictionary.UNKNOWN, snapshot.idOf("Bob"));
+    Assert.assertArrayEquals(new int[] {0, 1}, snapshot.idsOf(Arrays.asList("Mia", "Bob", "Ada")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsOtherData() {
+    CalendarSnapshot.wrap(ByteBuffer.wrap("not a snapshot at all".getBytes()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsTruncatedSnapshot() throws IOException {
+    byte[] bytes = toBytes(Arrays.asList(Events.events));
+    CalendarSnapshot.wrap(ByteBuffer.wrap(bytes, 0, bytes.length - 1));
+  }
+
+  @Test
+  public void mappedSnapshotMatchesEventQuery() throws IOException {
+    List<String> people = CalendarGenerator.people(30);
+    List<Event> events = CalendarGenerator.events(new Random(13), people, 5);
+
+    Path file = Files.createTempFile("calendar", ".snapshot");
+    try {
+      try (OutputStream out = Files.newOutputStream(file)) {
+        CalendarSnapshot.write(events, out);
+      }
+      CalendarSnapshot snapshot = CalendarSnapshot.open(file);
+
+      for (FindMeetingQuery.Algorithm algorithm : FindMeetingQuery.Algorithm.values()) {
+        FindMeetingQuery query = new FindMeetingQuery(algorithm);
+
+        RandomizedDifferential.check(/* seed= */ 14, /* trials= */ 50,
+            random -> {
+              MeetingRequest request = CalendarGenerator.request(
+                  random, people, random.nextInt(4), random.nextInt(4), 1 + random.nextInt(120));
+              request.addOptionalAttendee("Not in the snapshot");
+              return request;
+            },
+            request -> query.query(events, request),
+            request -> query.query(snapshot, request));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void overlappingEventsMatchEveryEventChecked() throws IOException {
+    List<String> people = CalendarGenerator.people(20);
+    List<Event> events = CalendarGenerator.events(new Random(19), people, 6);
+    CalendarSnapshot snapshot = CalendarSnapshot.wrap(ByteBuffer.wrap(toBytes(events)));
+
+    RandomizedDifferential.check(/* seed= */ 20, /* trials= */ 500,
+        random -> {
+          List<String> attendees = new ArrayList<>();
+          for (int i = random.nextInt(4); i > 0; i--) {
+            attendees.add(people.get(random.nextInt(people.size())));
+          }
+          attendees.add("Not in the snapshot");
+          // Empty ranges are included, since they overlap only the events that contain them.
+          int start = random.nextInt(TimeRange.END_OF_DAY);
+          int end = Math.min(TimeRange.END_OF_DAY + 1, start + random.nextInt(180));
+          return new ConflictQuery(attendees, TimeRange.fromStartEnd(start, end, /* inclusive= */ false));
+        },
+        conflictQuery -> {
+          Set<Event> expected = new HashSet<>();
+          for (Event event : events) {
+            if (!Collections.disjoint(event.getAttendees(), conflictQuery.attendees)
+                && event.getWhen().overlaps(conflictQuery.when)) {
+              expected.add(event);
+            }
+          }
+          return expected;
+        },
+        conflictQuery -> {
+          List<Event> actual =
+              snapshot.getOverlappingEvents(conflictQuery.attendees, conflictQuery.when);
+          for (int i = 1; i < actual.size(); i++) {
+            Assert.assertTrue(actual.get(i - 1).getWhen().start()
+                <= actual.get(i).getWhen().start());
+          }
+          Set<Event> unique = new HashSet<>(actual);
+          Assert.assertEquals(actual.size(), unique.size());
+          return unique;
+        });
+  }
+
+  private static byte[] toBytes(Collection<Event> events) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    CalendarSnapshot.write(events, out);
+    return out.toByteArray();
+  }
+
+  /**
+   * The attendees and time of a conflict check.
+   */
+  private static final class ConflictQuery {
+    private final List<String> attendees;
+    private final TimeRange when;
+
+    ConflictQuery(List<String> attendees, TimeRange when) {
+      this.attendees = attendees;
+      this.when = when;
+    }
+  }
+}
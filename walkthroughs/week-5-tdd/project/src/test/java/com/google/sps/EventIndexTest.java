@@ -0,0 +1,214 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventIndexTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  private static final int THREADS = 8;
+
+  @Test
+  public void busyTimesAreMergedPerAttendee() {
+    EventIndex index = new EventIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A, PERSON_B))));
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES + 30)),
+        index.getBusyTimes(PERSON_A));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES)),
+        index.getBusyTimes(PERSON_B));
+  }
+
+  @Test
+  public void removingAnEventKeepsOtherEventsWithTheSameTime() {
+    Event event1 = new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A));
+    Event event2 = new Event("Event 2",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A));
+    EventIndex index = new EventIndex(Arrays.asList(event1, event2));
+
+    Assert.assertTrue(index.remove(event1));
+    Assert.assertFalse(index.remove(event1));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES)),
+        index.getBusyTimes(PERSON_A));
+
+    Assert.assertTrue(index.remove(event2));
+    Assert.assertEquals(Collections.emptyList(), index.getBusyTimes(PERSON_A));
+    Assert.assertEquals(0, index.size());
+  }
+
+  @Test
+  public void addingAnEventTwiceIsIgnored() {
+    Event event = new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A));
+    EventIndex index = new EventIndex();
+
+    Assert.assertTrue(index.add(event));
+    Assert.assertFalse(index.add(event));
+    Assert.assertEquals(1, index.size());
+  }
+
+  @Test
+  public void eventsWithTheSameTitleAreIndexedSeparately() {
+    Event standup1 = new Event("Standup",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A));
+    Event standup2 = new Event("Standup",
+        TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A));
+    EventIndex index = new EventIndex(Arrays.asList(standup1, standup2));
+
+    Assert.assertEquals(2, index.size());
+    Assert.assertFalse(index.add(new Event("Standup",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A))));
+    Assert.assertTrue(index.remove(new Event("Standup",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A))));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES)),
+        index.getBusyTimes(PERSON_A));
+  }
+
+  @Test
+  public void indexedQueryMatchesCollectionQuery() {
+    List<String> people = CalendarGenerator.people(12);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    RandomizedDifferential.check(/* seed= */ 7, /* trials= */ 200,
+        random -> CalendarGenerator.scenario(random, people),
+        scenario -> query.query(remainingAfterRemovals(scenario.events), scenario.request),
+        scenario -> query.query(indexWithRemovals(scenario.events), scenario.request));
+  }
+
+  @Test
+  public void incrementalUpdatesMatchRebuiltIndex() {
+    EventIndex index = new EventIndex();
+    List<Event> indexed = new ArrayList<>();
+    AtomicInteger added = new AtomicInteger();
+
+    // Every trial adds or removes one event, then compares the index with one built from scratch.
+    RandomizedDifferential.check(/* seed= */ 17, /* trials= */ 2000,
+        random -> {
+          if (!indexed.isEmpty() && random.nextInt(5) < 2) {
+            Assert.assertTrue(index.remove(indexed.remove(random.nextInt(indexed.size()))));
+          } else {
+            // Short events on a coarse grid, so that many of them overlap, touch or are empty.
+            int start = 10 * random.nextInt(20);
+            Event event = new Event("Event " + added.incrementAndGet(),
+                TimeRange.fromStartDuration(start, 10 * random.nextInt(4)),
+                Arrays.asList(PERSON_A));
+            Assert.assertTrue(index.add(event));
+            indexed.add(event);
+          }
+          return PERSON_A;
+        },
+        attendee -> new EventIndex(indexed).getBusyTimes(attendee),
+        attendee -> index.getBusyTimes(attendee));
+  }
+
+  @Test
+  public void sharedIndexCanBeQueriedFromSeveralThreads() throws Exception {
+    Random random = new Random(23);
+    List<String> people = CalendarGenerator.people(40);
+    List<Event> events = CalendarGenerator.events(random, people, 8);
+
+    List<MeetingRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      requests.add(CalendarGenerator.request(
+          random, people, random.nextInt(6), random.nextInt(6), 1 + random.nextInt(120)));
+    }
+
+    List<Collection<TimeRange>> expected = new ArrayList<>();
+    for (MeetingRequest request : requests) {
+      expected.add(new FindMeetingQuery().query(events, request));
+    }
+
+    for (FindMeetingQuery.Algorithm algorithm : FindMeetingQuery.Algorithm.values()) {
+      // A fresh index, so that the threads are the first to read every attendee's intervals.
+      EventIndex index = new EventIndex(events);
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      CountDownLatch start = new CountDownLatch(1);
+
+      try {
+        List<Future<List<Collection<TimeRange>>>> results = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+          results.add(executor.submit(() -> {
+            start.await();
+
+            FindMeetingQuery query = new FindMeetingQuery(algorithm);
+            List<Collection<TimeRange>> actual = new ArrayList<>();
+            for (MeetingRequest request : requests) {
+              actual.add(query.query(index, request));
+            }
+            return actual;
+          }));
+        }
+
+        start.countDown();
+
+        for (Future<List<Collection<TimeRange>>> result : results) {
+          Assert.assertEquals(expected, result.get());
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * Indexes {@code events}, then removes the first third of them again to exercise the
+   * incremental path.
+   */
+  private static EventIndex indexWithRemovals(List<Event> events) {
+    EventIndex index = new EventIndex(events);
+    for (Event event : events.subList(0, events.size() / 3)) {
+      index.remove(event);
+    }
+    return index;
+  }
+
+  private static List<Event> remainingAfterRemovals(List<Event> events) {
+    return events.subList(events.size() / 3, events.size());
+  }
+}
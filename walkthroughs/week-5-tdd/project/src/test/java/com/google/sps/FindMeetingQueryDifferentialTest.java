@@ -0,0 +1,310 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class FindMeetingQueryDifferentialTest {
+  // The first day of the year 2020 as days since the epoch.
+  private static final long DAY_2020_01_01 = 18262;
+  private static final long MINUTES_PER_DAY = EpochRange.MINUTES_PER_DAY;
+
+  private static final int DURATION_4_HOURS = 4 * 60;
+
+  private static final List<String> RESOURCES = Arrays.asList("projector", "whiteboard");
+
+  private static final String[] RULES = {"FREQ=DAILY", "FREQ=DAILY;INTERVAL=3;COUNT=5",
+      "FREQ=WEEKLY", "FREQ=WEEKLY;INTERVAL=2;UNTIL=20200201",
+      "FREQ=DAILY;BYDAY=SA,SU,MO,TU,WE,TH,FR"};
+
+  private final FindMeetingQuery query = new FindMeetingQuery();
+
+  @Test
+  public void singleDayWindowMatchesDayQuery() {
+    List<String> people = CalendarGenerator.people(10);
+
+    RandomizedDifferential.check(/* seed= */ 5, /* trials= */ 100,
+        random -> CalendarGenerator.scenario(random, people),
+        scenario -> toEpochRanges(query.query(scenario.events, scenario.request)),
+        scenario -> query.query(toEpochEvents(scenario.events), scenario.request,
+            EpochRange.ofDays(DAY_2020_01_01, /* days= */ 1)));
+  }
+
+  @Test
+  public void batchMatchesIndividualQueries() {
+    List<String> people = CalendarGenerator.people(20);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      RandomizedDifferential.check(/* seed= */ 9, /* trials= */ 20,
+          random -> randomBatch(random, people),
+          batch -> individualAnswers(batch.events, batch.requests),
+          batch -> query.queryAll(batch.events, batch.requests));
+      RandomizedDifferential.check(/* seed= */ 10, /* trials= */ 20,
+          random -> randomBatch(random, people),
+          batch -> individualAnswers(batch.events, batch.requests),
+          batch -> query.queryAll(batch.events, batch.requests, pool));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static List<EpochEvent> toEpochEvents(Collection<Event> events) {
+    List<EpochEvent> epochEvents = new ArrayList<>();
+    for (Event event : events) {
+      epochEvents.add(EpochEvent.fromEvent(DAY_2020_01_01, event));
+    }
+    return epochEvents;
+  }
+
+  private static List<EpochRange> toEpochRanges(Collection<TimeRange> ranges) {
+    List<EpochRange> epochRanges = new ArrayList<>();
+    for (TimeRange range : ranges) {
+      epochRanges.add(EpochRange.fromTimeRange(DAY_2020_01_01, range));
+    }
+    return epochRanges;
+  }
+
+  @Test
+  public void parallelQueriesMatchSequentialQueries() {
+    List<String> people = CalendarGenerator.people(4000);
+    List<Event> events = CalendarGenerator.events(new Random(21), people, 10);
+    Assert.assertTrue(events.size() >= FindMeetingQuery.PARALLEL_EVENT_THRESHOLD);
+    EventIndex index = new EventIndex(events);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      FindMeetingQuery parallelQuery = new FindMeetingQuery(
+          FindMeetingQuery.Algorithm.SORT_AND_MERGE, /* cache= */ null, pool);
+
+      RandomizedDifferential.check(/* seed= */ 22, /* trials= */ 10,
+          random -> manyAttendeeRequest(random, people),
+          request -> query.query(events, request),
+          request -> parallelQuery.query(events, request));
+      RandomizedDifferential.check(/* seed= */ 23, /* trials= */ 10,
+          random -> manyAttendeeRequest(random, people),
+          request -> query.query(events, request),
+          request -> parallelQuery.query(index, request));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void recurringEventsMatchExpandedEvents() {
+    List<String> people = CalendarGenerator.people(6);
+
+    RandomizedDifferential.check(/* seed= */ 19, /* trials= */ 100,
+        random -> randomRecurringCalendar(random, people),
+        calendar -> query.query(calendar.expandedEvents(), calendar.request, calendar.window),
+        calendar -> query.query(
+            calendar.events, calendar.recurringEvents, calendar.request, calendar.window));
+  }
+
+  @Test
+  public void roomTimesMatchCheckingEveryStart() {
+    List<String> people = CalendarGenerator.people(10);
+    List<String> roomNames = CalendarGenerator.people(40).subList(10, 40);
+    List<Room> roomList = randomRooms(new Random(31), roomNames);
+    RoomDirectory rooms = new RoomDirectory(roomList);
+
+    RandomizedDifferential.check(/* seed= */ 32, /* trials= */ 10,
+        random -> randomRoomScenario(random, people, roomNames),
+        scenario -> roomStartsCheckingEveryStart(scenario.events, roomList, scenario.request),
+        scenario -> roomStartsIn(query.queryRooms(scenario.events, rooms, scenario.request),
+            (int) scenario.request.getDuration()));
+  }
+
+  private List<Collection<TimeRange>> individualAnswers(
+      Collection<Event> events, List<MeetingRequest> requests) {
+    List<Collection<TimeRange>> answers = new ArrayList<>();
+    for (MeetingRequest request : requests) {
+      answers.add(query.query(events, request));
+    }
+    return answers;
+  }
+
+  /** Returns a request with enough attendees to run an indexed query on the pool. */
+  private static MeetingRequest manyAttendeeRequest(Random random, List<String> people) {
+    return CalendarGenerator.request(random, people, 1 + random.nextInt(40),
+        FindMeetingQuery.PARALLEL_ATTENDEE_THRESHOLD, 1 + random.nextInt(60));
+  }
+
+  private static Batch randomBatch(Random random, List<String> people) {
+    Batch batch = new Batch(CalendarGenerator.events(random, people, 1 + random.nextInt(4)));
+    for (int i = random.nextInt(10); i > 0; i--) {
+      batch.requests.add(CalendarGenerator.request(
+          random, people, random.nextInt(4), random.nextInt(4), 1 + random.nextInt(120)));
+    }
+    return batch;
+  }
+
+  /**
+   * Draws one-off and recurring events in the first weeks of 2020, a window of up to two weeks and
+   * a request of up to four hours.
+   */
+  private static RecurringCalendar randomRecurringCalendar(Random random, List<String> people) {
+    EpochRange window = EpochRange.fromStartDuration(
+        (DAY_2020_01_01 + random.nextInt(30)) * MINUTES_PER_DAY
+            + random.nextInt((int) MINUTES_PER_DAY),
+        1 + random.nextInt(14 * (int) MINUTES_PER_DAY));
+    RecurringCalendar calendar = new RecurringCalendar(window);
+
+    for (Event event : CalendarGenerator.events(random, people, random.nextInt(4))) {
+      calendar.events.add(EpochEvent.fromEvent(DAY_2020_01_01 + random.nextInt(45), event));
+    }
+
+    for (int i = random.nextInt(5); i > 0; i--) {
+      calendar.recurringEvents.add(new RecurringEvent("Recurring",
+          EpochRange.fromStartDuration(
+              DAY_2020_01_01 * MINUTES_PER_DAY + random.nextInt(7 * (int) MINUTES_PER_DAY),
+              1 + random.nextInt(DURATION_4_HOURS)),
+          people.subList(random.nextInt(3), 3 + random.nextInt(3)),
+          RecurrenceRule.parse(RULES[random.nextInt(RULES.length)])));
+    }
+
+    calendar.request = CalendarGenerator.request(
+        random, people, random.nextInt(3), random.nextInt(3), 1 + random.nextInt(DURATION_4_HOURS));
+    return calendar;
+  }
+
+  private static List<Room> randomRooms(Random random, List<String> roomNames) {
+    List<Room> rooms = new ArrayList<>();
+    for (String roomName : roomNames) {
+      rooms.add(new Room(roomName, 1 + random.nextInt(20),
+          RESOURCES.subList(random.nextInt(2), 1 + random.nextInt(2))));
+    }
+    return rooms;
+  }
+
+  /**
+   * Draws events for {@code people} and for the rooms, and a request of up to two hours for up to
+   * two people that needs a room.
+   */
+  private static CalendarGenerator.Scenario randomRoomScenario(
+      Random random, List<String> people, List<String> roomNames) {
+    List<Event> events = new ArrayList<>(CalendarGenerator.events(random, people, 3));
+    events.addAll(CalendarGenerator.events(random, roomNames, 1 + random.nextInt(6)));
+
+    MeetingRequest request =
+        CalendarGenerator.request(random, people, random.nextInt(3), 0, 1 + random.nextInt(120));
+    request.requireRoom(random.nextInt(20));
+    if (random.nextBoolean()) {
+      request.addRequiredResource(RESOURCES.get(random.nextInt(2)));
+    }
+
+    return new CalendarGenerator.Scenario(events, request);
+  }
+
+  /**
+   * Tries every start in every suitable room, and returns the room and start pairs at which the
+   * attendees and the room are free.
+   */
+  private static Set<String> roomStartsCheckingEveryStart(
+      Collection<Event> events, List<Room> rooms, MeetingRequest request) {
+    int duration = (int) request.getDuration();
+    Set<String> roomStarts = new TreeSet<>();
+
+    for (int start = 0; start + duration <= TimeRange.WHOLE_DAY.duration(); start++) {
+      TimeRange slot = TimeRange.fromStartDuration(start, duration);
+      boolean attendeesFree = true;
+
+      for (String attendee : request.getAttendees()) {
+        attendeesFree &= !isBusy(events, attendee, slot);
+      }
+
+      for (Room room : rooms) {
+        if (attendeesFree && room.getCapacity() >= request.getRoomCapacity()
+            && room.getResources().containsAll(request.getRequiredResources())
+            && !isBusy(events, room.getName(), slot)) {
+          roomStarts.add(room.getName() + " at " + start);
+        }
+      }
+    }
+
+    return roomStarts;
+  }
+
+  /**
+   * Returns every room and start of a meeting of {@code duration} minutes that fits in
+   * {@code times}.
+   */
+  private static Set<String> roomStartsIn(List<RoomTimeRange> times, int duration) {
+    Set<String> roomStarts = new TreeSet<>();
+    for (RoomTimeRange time : times) {
+      for (int start = time.getWhen().start(); start + duration <= time.getWhen().end(); start++) {
+        roomStarts.add(time.getRoom().getName() + " at " + start);
+      }
+    }
+    return roomStarts;
+  }
+
+  private static boolean isBusy(Collection<Event> events, String attendee, TimeRange slot) {
+    for (Event event : events) {
+      if (event.getAttendees().contains(attendee) && event.getWhen().overlaps(slot)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /** Several requests against the same calendar. */
+  private static final class Batch {
+    final List<Event> events;
+    final List<MeetingRequest> requests = new ArrayList<>();
+
+    Batch(List<Event> events) {
+      this.events = events;
+    }
+  }
+
+  /** One-off and recurring events, and a meeting to schedule on them in a window. */
+  private static final class RecurringCalendar {
+    final EpochRange window;
+    final List<EpochEvent> events = new ArrayList<>();
+    final List<RecurringEvent> recurringEvents = new ArrayList<>();
+    MeetingRequest request;
+
+    RecurringCalendar(EpochRange window) {
+      this.window = window;
+    }
+
+    /** Returns the one-off events and every occurrence of the recurring events in the window. */
+    List<EpochEvent> expandedEvents() {
+      List<EpochEvent> expandedEvents = new ArrayList<>(events);
+      for (RecurringEvent recurringEvent : recurringEvents) {
+        for (EpochRange occurrence : recurringEvent.getOccurrences(window)) {
+          expandedEvents.add(
+              new EpochEvent("Occurrence", occurrence, recurringEvent.getAttendees()));
+        }
+      }
+      return expandedEvents;
+    }
+  }
+}
@@ -14,11 +14,11 @@
 
 package com.google.sps;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -57,6 +57,10 @@ public final class FindMeetingQueryTest {
   private static final int DURATION_1_HOUR = 60;
   private static final int DURATION_2_HOUR = 120;
 
+  // The first day of the year 2020 as days since the epoch.
+  private static final long DAY_2020_01_01 = 18262;
+  private static final long MINUTES_PER_DAY = EpochRange.MINUTES_PER_DAY;
+
   private FindMeetingQuery query;
 
   @Before
@@ -440,4 +444,382 @@ public final class FindMeetingQueryTest {
 
     Assert.assertEquals(expected, actual);
   }
+
+  @Test
+  public void mostOptionalAttendeesAreConsidered() {
+    // C is busy all day, so no time suits every optional attendee. The plain query falls back to
+    // the mandatory attendee's times, but B can still be accommodated.
+    //
+    // Events  : |--A--|   |--B--|
+    //           |-------------C-------------|
+    // Day     : |---------------------------|
+    // Options : |     |-1-|     |-----2-----|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_C)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+
+    Collection<TimeRange> actual = query.queryMaximizingOptionalAttendees(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void mostOptionalAttendeesWithoutOptionalAttendees() {
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.queryMaximizingOptionalAttendees(events, request);
+    Collection<TimeRange> expected = query.query(events, request);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void mostOptionalAttendeesWithMandatoryAttendeeWithFullSchedule() {
+    Collection<Event> events =
+        Arrays.asList(new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    Collection<TimeRange> actual = query.queryMaximizingOptionalAttendees(events, request);
+    Collection<TimeRange> expected = Collections.emptyList();
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void quorumOfTwoOutOfThree() {
+    // Events  :       |--A--|
+    //                    |--C--|   |--B--|
+    // Day     : |-----------------------------|
+    // Options : |---1---|     |-------2-------|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_C)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_1000AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_B)));
+
+    Collection<TimeRange> actual = query.queryQuorum(events,
+        Arrays.asList(PERSON_A, PERSON_B, PERSON_C), /* quorum= */ 2, DURATION_30_MINUTES);
+    Collection<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
+        TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void quorumLargerThanInvitees() {
+    Collection<TimeRange> actual = query.queryQuorum(
+        NO_EVENTS, Arrays.asList(PERSON_A), /* quorum= */ 2, DURATION_30_MINUTES);
+
+    Assert.assertEquals(Collections.emptyList(), actual);
+  }
+
+  @Test
+  public void bestSlotsPreferFewestOptionalConflicts() {
+    // B is busy for the first hour, so the earliest slots that B can attend win.
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(TimeRange.START_OF_DAY, DURATION_60_MINUTES),
+        Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    List<TimeRange> actual = query.queryBest(events, request, /* k= */ 2,
+        /* stepMinutes= */ DURATION_30_MINUTES, SlotScorer.fewestOptionalConflicts());
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartDuration(DURATION_60_MINUTES, DURATION_30_MINUTES),
+        TimeRange.fromStartDuration(DURATION_90_MINUTES, DURATION_30_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void bestSlotsInsidePreferredWindowAvoidMandatoryConflicts() {
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    TimeRange workingHours = TimeRange.fromStartEnd(TIME_0900AM, TIME_0200PM, false);
+
+    List<TimeRange> actual = query.queryBest(events, request, /* k= */ 2,
+        /* stepMinutes= */ DURATION_15_MINUTES, SlotScorer.preferredWindow(workingHours));
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES),
+        TimeRange.fromStartDuration(TIME_1000AM + DURATION_15_MINUTES, DURATION_30_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void eventAcrossMidnightBlocksBothDays() {
+    // Events  :        |---A---|
+    // Days    : |-------1-------|-------2-------|
+    // Options : |---1--|       |-------2--------|
+
+    long day1 = DAY_2020_01_01 * MINUTES_PER_DAY;
+    long day2 = day1 + MINUTES_PER_DAY;
+    Collection<EpochEvent> events = Arrays.asList(new EpochEvent("Event 1",
+        EpochRange.fromStartEnd(day1 + TIME_0200PM, day2 + TIME_0800AM), Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+
+    Collection<EpochRange> actual =
+        query.query(events, request, EpochRange.ofDays(DAY_2020_01_01, /* days= */ 2));
+    Collection<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartEnd(day1, day1 + TIME_0200PM),
+        EpochRange.fromStartEnd(day2 + TIME_0800AM, day2 + MINUTES_PER_DAY));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void meetingLongerThanADay() {
+    long day1 = DAY_2020_01_01 * MINUTES_PER_DAY;
+    long day3 = day1 + 2 * MINUTES_PER_DAY;
+    Collection<EpochEvent> events = Arrays.asList(
+        new EpochEvent("Event 1", EpochRange.fromStartDuration(day1 + TIME_0800AM,
+            DURATION_1_HOUR), Arrays.asList(PERSON_A)),
+        new EpochEvent("Event 2", EpochRange.fromStartDuration(day3 + TIME_0800AM,
+            DURATION_1_HOUR), Arrays.asList(PERSON_B)));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), (int) MINUTES_PER_DAY + 1);
+
+    Collection<EpochRange> actual =
+        query.query(events, request, EpochRange.ofDays(DAY_2020_01_01, /* days= */ 3));
+    Collection<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartEnd(day1 + TIME_0800AM + DURATION_1_HOUR, day3 + TIME_0800AM));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void eventsOutsideOfWindowAreIgnored() {
+    long day1 = DAY_2020_01_01 * MINUTES_PER_DAY;
+    Collection<EpochEvent> events = Arrays.asList(new EpochEvent("Event 1",
+        EpochRange.fromStartDuration(day1 - DURATION_1_HOUR, DURATION_1_HOUR),
+        Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    EpochRange window = EpochRange.ofDays(DAY_2020_01_01, /* days= */ 1);
+
+    Collection<EpochRange> actual = query.query(events, request, window);
+    Collection<EpochRange> expected = Arrays.asList(window);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void recurringStandUpBlocksEveryWeekday() {
+    // The stand-up is every weekday at 9AM. Over one week starting on Wednesday, the mornings of
+    // Saturday and Sunday stay free, so the two-day meeting fits from Friday's stand-up to
+    // Monday's.
+    long day1 = DAY_2020_01_01 * MINUTES_PER_DAY;
+    Collection<RecurringEvent> recurringEvents = Arrays.asList(new RecurringEvent("Stand-up",
+        EpochRange.fromStartDuration(day1 + TIME_0900AM, DURATION_15_MINUTES),
+        Arrays.asList(PERSON_A), RecurrenceRule.parse("FREQ=DAILY;BYDAY=MO,TU,WE,TH,FR")));
+
+    long twoDays = 2 * MINUTES_PER_DAY;
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), twoDays);
+
+    Collection<EpochRange> actual = query.query(Collections.emptyList(), recurringEvents, request,
+        EpochRange.ofDays(DAY_2020_01_01, /* days= */ 7));
+    Collection<EpochRange> expected = Arrays.asList(EpochRange.fromStartEnd(
+        day1 + 2 * MINUTES_PER_DAY + TIME_0900AM + DURATION_15_MINUTES,
+        day1 + 5 * MINUTES_PER_DAY + TIME_0900AM));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void zeroLengthRecurringEventSplitsFreeTimeLikeOneOffEvent() {
+    // A zero-length event splits the day in two, whether it happens once or every day.
+    long day1 = DAY_2020_01_01 * MINUTES_PER_DAY;
+    EpochRange window = EpochRange.ofDays(DAY_2020_01_01, /* days= */ 1);
+    Collection<RecurringEvent> recurringEvents = Arrays.asList(new RecurringEvent("Reminder",
+        EpochRange.fromStartDuration(day1 + TIME_0900AM, 0), Arrays.asList(PERSON_A),
+        RecurrenceRule.parse("FREQ=DAILY")));
+    Collection<EpochEvent> oneOffEvents = Arrays.asList(new EpochEvent("Reminder",
+        EpochRange.fromStartDuration(day1 + TIME_0900AM, 0), Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Collection<EpochRange> actual =
+        query.query(Collections.emptyList(), recurringEvents, request, window);
+    Collection<EpochRange> expected =
+        Arrays.asList(EpochRange.fromStartEnd(day1, day1 + TIME_0900AM),
+            EpochRange.fromStartEnd(day1 + TIME_0900AM, day1 + MINUTES_PER_DAY));
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertEquals(query.query(oneOffEvents, request, window), actual);
+  }
+
+  @Test
+  public void meetingCannotMoveBetweenRooms() {
+    // Room 2 is free until 11AM and room 1 from 10AM, but neither is free for 90 minutes starting
+    // between 9:30AM and 10AM, so the options are returned per room instead of being merged.
+    //
+    // Room 1  :           |--1--|
+    // Room 2  :                    |--2--|
+    // Day     : |-----------------------------|
+    // Room 1  : |----1----|     |------3------|
+    // Room 2  : |--------2---------|   |--4---|
+    Collection<Event> events = Arrays.asList(
+        new Event("Booking 1", TimeRange.fromStartDuration(TIME_0900AM, DURATION_1_HOUR),
+            Arrays.asList("Room 1")),
+        new Event("Booking 2", TimeRange.fromStartDuration(TIME_1100AM, DURATION_1_HOUR),
+            Arrays.asList("Room 2")));
+    Room room1 = new Room("Room 1", 4, NO_ATTENDEES);
+    Room room2 = new Room("Room 2", 4, NO_ATTENDEES);
+    RoomDirectory rooms = new RoomDirectory(Arrays.asList(room1, room2));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_90_MINUTES);
+    request.requireRoom(2);
+
+    List<RoomTimeRange> actual = query.queryRooms(events, rooms, request);
+    List<RoomTimeRange> expected = Arrays.asList(
+        new RoomTimeRange(room1,
+            TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false)),
+        new RoomTimeRange(room2,
+            TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1100AM, false)),
+        new RoomTimeRange(room1, TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true)),
+        new RoomTimeRange(room2, TimeRange.fromStartEnd(
+            TIME_1100AM + DURATION_1_HOUR, TimeRange.END_OF_DAY, true)));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeeIsDroppedWhenNoRoomSuitsThem() {
+    // The only room (R) is booked whenever optional attendee B is free, so only the mandatory
+    // attendee counts.
+    //
+    // Events  :           |--R--|
+    //           |----B----|     |------B------|
+    // Day     : |-----------------------------|
+    // Room 1  : |----1----|     |------2------|
+    Collection<Event> events = Arrays.asList(
+        new Event("Booking 1", TimeRange.fromStartDuration(TIME_0900AM, DURATION_1_HOUR),
+            Arrays.asList("Room 1")),
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_B)));
+    Room room1 = new Room("Room 1", 4, NO_ATTENDEES);
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.requireRoom(2);
+
+    List<RoomTimeRange> actual =
+        query.queryRooms(events, new RoomDirectory(Arrays.asList(room1)), request);
+    List<RoomTimeRange> expected = Arrays.asList(
+        new RoomTimeRange(room1,
+            TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false)),
+        new RoomTimeRange(room1, TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true)));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void noMatchingRoom() {
+    RoomDirectory rooms =
+        new RoomDirectory(Arrays.asList(new Room("Room 1", 4, Arrays.asList("projector"))));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addRequiredResource("whiteboard");
+
+    Assert.assertEquals(Collections.emptyList(), query.queryRooms(NO_EVENTS, rooms, request));
+  }
+
+  @Test
+  public void roomIsIgnoredWithoutDirectory() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.requireRoom(4);
+
+    Collection<TimeRange> actual = query.query(NO_EVENTS, request);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.WHOLE_DAY);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void parallelIndexedQueryForManyAttendees() {
+    // Enough optional attendees to compute them on the pool, while the calling thread computes
+    // the mandatory attendee's options. None of the optional attendees has events.
+    //
+    // Events  :       |--A--|
+    // Day     : |-----------------------------|
+    // Options : |--1--|     |--------2--------|
+
+    EventIndex index = new EventIndex(Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A))));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    for (String attendee :
+        CalendarGenerator.people(FindMeetingQuery.PARALLEL_ATTENDEE_THRESHOLD)) {
+      request.addOptionalAttendee(attendee);
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      Collection<TimeRange> actual = new FindMeetingQuery(
+          FindMeetingQuery.Algorithm.SORT_AND_MERGE, /* cache= */ null, pool).query(index, request);
+      Collection<TimeRange> expected =
+          Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+              TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true));
+
+      Assert.assertEquals(expected, actual);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void batchAnswersEveryRequestInOrder() {
+    // Only A's request sees A's event, and C's event is left out of the batch's index.
+    //
+    // Events    :       |--A--|  |--C--|
+    // Day       : |-----------------------------|
+    // Request A : |--1--|     |-------2-------|
+    // Request B : |---------------1-------------|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_1000AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_C)));
+
+    List<MeetingRequest> requests =
+        Arrays.asList(new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES),
+            new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES));
+
+    List<Collection<TimeRange>> actual = query.queryAll(events, requests);
+    List<Collection<TimeRange>> expected = Arrays.asList(
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true)),
+        Arrays.asList(TimeRange.WHOLE_DAY));
+
+    Assert.assertEquals(expected, actual);
+  }
 }
@@ -0,0 +1,68 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class HistogramTest {
+  @Test
+  public void bucketsKeepRelativeErrorSmall() {
+    Random random = new Random(23);
+
+    for (int i = 0; i < 10000; i++) {
+      long value = random.nextLong() >>> (1 + random.nextInt(63));
+      long upperBound = Histogram.upperBoundOf(Histogram.bucketOf(value));
+
+      Assert.assertTrue(upperBound >= value);
+      Assert.assertTrue(upperBound - value <= value / 32);
+    }
+
+    Assert.assertEquals(Long.MAX_VALUE, Histogram.upperBoundOf(Histogram.bucketOf(Long.MAX_VALUE)));
+  }
+
+  @Test
+  public void percentilesOfUniformValues() {
+    Histogram histogram = new Histogram();
+    for (int value = 1; value <= 1000; value++) {
+      histogram.record(value);
+    }
+
+    Assert.assertEquals(1000, histogram.getCount());
+    Assert.assertEquals(500500, histogram.getTotal());
+    Assert.assertEquals(1000, histogram.getMax());
+    Assert.assertEquals(500.5, histogram.getMean(), 0);
+
+    long median = histogram.getValueAtPercentile(50);
+    Assert.assertTrue(median >= 500 && median <= 500 + 500 / 32);
+    Assert.assertEquals(1000, histogram.getValueAtPercentile(100));
+  }
+
+  @Test
+  public void resetForgetsValues() {
+    Histogram histogram = new Histogram();
+    histogram.record(42);
+    histogram.reset();
+
+    Assert.assertEquals(0, histogram.getCount());
+    Assert.assertEquals(0, histogram.getMax());
+    Assert.assertEquals(0, histogram.getValueAtPercentile(50));
+  }
+}
@@ -0,0 +1,124 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class IntervalTreeTest {
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  @Test
+  public void overlappingSkipsTouchingRanges() {
+    IntervalTree<String> tree = new IntervalTree<>();
+    tree.add(TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES), "A");
+    tree.add(TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES), "B");
+    tree.add(TimeRange.fromStartDuration(TIME_1100AM, DURATION_60_MINUTES), "C");
+
+    List<String> actual =
+        tree.overlapping(TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, /* inclusive= */ false));
+
+    Assert.assertEquals(Arrays.asList("B"), actual);
+  }
+
+  @Test
+  public void containingFindsEveryRangeAroundThePoint() {
+    IntervalTree<String> tree = new IntervalTree<>();
+    tree.add(TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES * 2), "A");
+    tree.add(TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES), "B");
+    tree.add(TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES), "C");
+
+    Assert.assertEquals(Arrays.asList("A", "B", "C"), tree.containing(TIME_1000AM));
+    Assert.assertEquals(Arrays.asList("A"), tree.containing(TIME_1000AM + DURATION_30_MINUTES));
+    Assert.assertEquals(Collections.emptyList(), tree.containing(TIME_1100AM));
+  }
+
+  @Test
+  public void removeDropsOneValue() {
+    TimeRange range = TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES);
+    IntervalTree<String> tree = new IntervalTree<>();
+    tree.add(range, "A");
+    tree.add(range, "B");
+
+    Assert.assertTrue(tree.remove(range, "A"));
+    Assert.assertFalse(tree.remove(range, "A"));
+    Assert.assertEquals(Arrays.asList("B"), tree.containing(TIME_0900AM));
+    Assert.assertEquals(1, tree.size());
+  }
+
+  @Test
+  public void matchesLinearScanUnderAddsAndRemoves() {
+    IntervalTree<Integer> tree = new IntervalTree<>();
+    // The range added with each value, or null once it has been removed again.
+    List<TimeRange> ranges = new ArrayList<>();
+
+    // Every trial adds or removes a range, then looks up the ranges that overlap a random range
+    // and those that contain its start.
+    RandomizedDifferential.check(/* seed= */ 3, /* trials= */ 2000,
+        random -> {
+          int index = ranges.isEmpty() ? -1 : random.nextInt(ranges.size());
+          if (index >= 0 && ranges.get(index) != null && random.nextInt(3) == 0) {
+            Assert.assertTrue(tree.remove(ranges.get(index), index));
+            ranges.set(index, null);
+          } else {
+            TimeRange range = randomRange(random);
+            tree.add(range, ranges.size());
+            ranges.add(range);
+          }
+          return randomRange(random);
+        },
+        query -> Arrays.asList(
+            scan(ranges, query::overlaps), scan(ranges, range -> range.contains(query.start()))),
+        query -> Arrays.asList(
+            sorted(tree.overlapping(query)), sorted(tree.containing(query.start()))));
+  }
+
+  /** Returns the values of the ranges that are still in the tree and match {@code filter}. */
+  private static List<Integer> scan(List<TimeRange> ranges, Predicate<TimeRange> filter) {
+    List<Integer> values = new ArrayList<>();
+    for (int i = 0; i < ranges.size(); i++) {
+      if (ranges.get(i) != null && filter.test(ranges.get(i))) {
+        values.add(i);
+      }
+    }
+    return values;
+  }
+
+  private static List<Integer> sorted(List<Integer> values) {
+    Collections.sort(values);
+    return values;
+  }
+
+  private static TimeRange randomRange(Random random) {
+    int start = random.nextInt(TimeRange.END_OF_DAY + 1);
+    return TimeRange.fromStartDuration(
+        start, random.nextInt(Math.min(120, TimeRange.END_OF_DAY + 1 - start) + 1));
+  }
+}
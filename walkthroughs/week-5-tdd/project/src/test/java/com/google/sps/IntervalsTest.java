@@ -0,0 +1,101 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class IntervalsTest {
+  private static final int DAY_END = TimeRange.END_OF_DAY + 1;
+
+  @Test
+  public void packRoundTrips() {
+    long interval = Intervals.pack(90, DAY_END);
+
+    Assert.assertEquals(90, Intervals.start(interval));
+    Assert.assertEquals(DAY_END, Intervals.end(interval));
+  }
+
+  @Test
+  public void sortAndMergeJoinsOverlappingAndTouchingIntervals() {
+    long[] intervals = {Intervals.pack(60, 90), Intervals.pack(0, 30), Intervals.pack(30, 45),
+        Intervals.pack(70, 80), Intervals.pack(100, 120)};
+
+    int size = Intervals.sortAndMerge(intervals, intervals.length);
+
+    long[] actual = Arrays.copyOf(intervals, size);
+    long[] expected = {Intervals.pack(0, 45), Intervals.pack(60, 90), Intervals.pack(100, 120)};
+
+    Assert.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void unionOfTwoListsJoinsOverlappingAndTouchingIntervals() {
+    long[] intervalsA = {Intervals.pack(0, 30), Intervals.pack(60, 90), Intervals.pack(200, 210)};
+    long[] intervalsB = {Intervals.pack(30, 45), Intervals.pack(50, 70), Intervals.pack(80, 100)};
+
+    long[] actual = Intervals.union(intervalsA, intervalsB);
+    long[] expected = {Intervals.pack(0, 45), Intervals.pack(50, 100), Intervals.pack(200, 210)};
+
+    Assert.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void complementSkipsShortGaps() {
+    long[] busy = {Intervals.pack(0, 30), Intervals.pack(40, 100)};
+
+    long[] actual = Intervals.complement(busy, busy.length, 0, DAY_END, 15);
+    long[] expected = {Intervals.pack(100, DAY_END)};
+
+    Assert.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void complementOfNothingIsWholeRange() {
+    long[] actual = Intervals.complement(Intervals.EMPTY, 0, 0, DAY_END, 30);
+    long[] expected = {Intervals.pack(0, DAY_END)};
+
+    Assert.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void intersectKeepsLongEnoughOverlaps() {
+    long[] intervalsA = {Intervals.pack(0, 60), Intervals.pack(100, 200)};
+    long[] intervalsB = {Intervals.pack(50, 150)};
+
+    long[] actual = Intervals.intersect(intervalsA, intervalsB, 30);
+    long[] expected = {Intervals.pack(100, 150)};
+
+    Assert.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void matchesReferenceImplementationOnRandomCalendars() {
+    List<String> people = CalendarGenerator.people(12);
+    FindMeetingQuery query = new FindMeetingQuery();
+    ReferenceFindMeetingQuery reference = new ReferenceFindMeetingQuery();
+
+    RandomizedDifferential.check(/* seed= */ 42, /* trials= */ 500,
+        random -> CalendarGenerator.scenario(random, people),
+        scenario -> reference.query(scenario.events, scenario.request),
+        scenario -> query.query(scenario.events, scenario.request));
+  }
+}
@@ -0,0 +1,114 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MinuteBitmapTest {
+  @Test
+  public void emptyMaskIsFreeAllDay() {
+    long[] actual = MinuteBitmap.freeIntervals(MinuteBitmap.create(), 30);
+    long[] expected = {Intervals.pack(0, MinuteBitmap.MINUTES)};
+
+    Assert.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void rangesAcrossWordBoundaries() {
+    long[] mask = MinuteBitmap.create();
+    MinuteBitmap.set(mask, 60, 200);
+    MinuteBitmap.set(mask, 256, 320);
+    MinuteBitmap.set(mask, 1400, MinuteBitmap.MINUTES);
+
+    long[] actual = MinuteBitmap.freeIntervals(mask, 1);
+    long[] expected = {Intervals.pack(0, 60), Intervals.pack(200, 256),
+        Intervals.pack(320, 1400)};
+
+    Assert.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void shortRunsAreSkipped() {
+    long[] mask = MinuteBitmap.create();
+    MinuteBitmap.set(mask, 10, 100);
+    MinuteBitmap.set(mask, 110, MinuteBitmap.MINUTES);
+
+    long[] actual = MinuteBitmap.freeIntervals(mask, 15);
+    long[] expected = {};
+
+    Assert.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void orCombinesMasks() {
+    long[] maskA = MinuteBitmap.create();
+    long[] maskB = MinuteBitmap.create();
+    MinuteBitmap.set(maskA, 0, 30);
+    MinuteBitmap.set(maskB, 30, 90);
+    MinuteBitmap.or(maskA, maskB);
+
+    long[] actual = MinuteBitmap.freeIntervals(maskA, 1);
+    long[] expected = {Intervals.pack(90, MinuteBitmap.MINUTES)};
+
+    Assert.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void zeroLengthEventsDoNotSplitFreeRuns() {
+    // Sort-and-merge treats a zero-length event as a busy point that splits the day, while the
+    // bitmap has no minute to mark for it.
+    //
+    // Events  :       |
+    // Day     : |---------------------|
+    // Bitmap  : |----------1----------|
+    // Merged  : |--1--|--------2------|
+
+    List<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(TimeRange.START_OF_DAY + 60, 0), Arrays.asList("Person A")));
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Person A"), 30);
+
+    Collection<TimeRange> bitmap =
+        new FindMeetingQuery(FindMeetingQuery.Algorithm.MINUTE_BITMAP).query(events, request);
+    Collection<TimeRange> sortAndMerge = new FindMeetingQuery().query(events, request);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), bitmap);
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, 60, false),
+        TimeRange.fromStartEnd(60, TimeRange.END_OF_DAY, true)), sortAndMerge);
+  }
+
+  @Test
+  public void bitmapAlgorithmMatchesSortAndMerge() {
+    List<String> people = CalendarGenerator.people(12);
+    FindMeetingQuery sortAndMerge = new FindMeetingQuery();
+    FindMeetingQuery bitmap = new FindMeetingQuery(FindMeetingQuery.Algorithm.MINUTE_BITMAP);
+
+    RandomizedDifferential.check(/* seed= */ 3, /* trials= */ 200,
+        random -> CalendarGenerator.scenario(random, people),
+        scenario -> sortAndMerge.query(scenario.events, scenario.request),
+        scenario -> bitmap.query(scenario.events, scenario.request));
+    RandomizedDifferential.check(/* seed= */ 4, /* trials= */ 200,
+        random -> CalendarGenerator.scenario(random, people),
+        scenario -> sortAndMerge.query(scenario.events, scenario.request),
+        scenario -> bitmap.query(new EventIndex(scenario.events), scenario.request));
+  }
+}
@@ -0,0 +1,47 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Random;
+import java.util.function.Function;
+import org.junit.Assert;
+
+/**
+ * Runs randomized differential tests, which compare a mode under test with a simpler oracle on
+ * inputs drawn from a seeded {@link Random}.
+ */
+final class RandomizedDifferential {
+  private RandomizedDifferential() {}
+
+  /**
+   * Draws {@code trials} inputs from a {@link Random} seeded with {@code seed}, and asserts that
+   * {@code modeUnderTest} returns what {@code oracle} returns for every one of them. Failures name
+   * the seed and the trial, so that they can be replayed.
+   *
+   * @param inputs draws the next input; it may also update state that the oracle and the mode
+   *     under test share, such as a data structure and the model it is checked against
+   */
+  static <T> void check(long seed, int trials, Function<Random, T> inputs,
+      Function<? super T, ?> oracle, Function<? super T, ?> modeUnderTest) {
+    Random random = new Random(seed);
+
+    for (int trial = 0; trial < trials; trial++) {
+      T input = inputs.apply(random);
+
+      Assert.assertEquals("seed " + seed + ", trial " + trial, oracle.apply(input),
+          modeUnderTest.apply(input));
+    }
+  }
+}
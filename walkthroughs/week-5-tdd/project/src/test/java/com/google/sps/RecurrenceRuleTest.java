@@ -0,0 +1,93 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RecurrenceRuleTest {
+  // The first day of the year 2020 as days since the epoch.
+  private static final long DAY_2020_01_01 = 18262;
+
+  @Test
+  public void parseDefaults() {
+    RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY");
+
+    Assert.assertEquals(RecurrenceRule.Frequency.DAILY, rule.getFrequency());
+    Assert.assertEquals(1, rule.getInterval());
+    Assert.assertEquals(Integer.MAX_VALUE, rule.getCount());
+    Assert.assertEquals(Long.MAX_VALUE, rule.getUntilEpochDay());
+    Assert.assertFalse(rule.hasWeekdays());
+  }
+
+  @Test
+  public void parseEveryPart() {
+    RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,FR;UNTIL=20200131");
+
+    Assert.assertEquals(RecurrenceRule.Frequency.WEEKLY, rule.getFrequency());
+    Assert.assertEquals(2, rule.getInterval());
+    Assert.assertEquals(DAY_2020_01_01 + 30, rule.getUntilEpochDay());
+    Assert.assertTrue(rule.isOnWeekday(0));
+    Assert.assertFalse(rule.isOnWeekday(1));
+    Assert.assertTrue(rule.isOnWeekday(4));
+  }
+
+  @Test
+  public void weekdayOfKnownDays() {
+    // 2020-01-01 was a Wednesday and 1970-01-01 a Thursday.
+    Assert.assertEquals(2, RecurrenceRule.weekdayOf(DAY_2020_01_01));
+    Assert.assertEquals(3, RecurrenceRule.weekdayOf(0));
+    Assert.assertEquals(2, RecurrenceRule.weekdayOf(-1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void countAndUntilAreExclusive() {
+    RecurrenceRule.parse("FREQ=DAILY;COUNT=3;UNTIL=20200131");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void frequencyIsRequired() {
+    RecurrenceRule.parse("COUNT=3");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unsupportedFrequency() {
+    RecurrenceRule.parse("FREQ=MONTHLY");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unsupportedPart() {
+    RecurrenceRule.parse("FREQ=WEEKLY;BYMONTH=1");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void ordinalWeekdaysAreUnsupported() {
+    RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=1MO");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void intervalMustBePositive() {
+    RecurrenceRule.parse("FREQ=DAILY;INTERVAL=0");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void malformedPart() {
+    RecurrenceRule.parse("FREQ=DAILY;COUNT");
+  }
+}
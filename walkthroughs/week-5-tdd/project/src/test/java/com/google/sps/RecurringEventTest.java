@@ -0,0 +1,261 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RecurringEventTest {
+  private static final String PERSON_A = "Person A";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1100PM = TimeRange.getTimeInMinutes(23, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_2_HOUR = 120;
+
+  // The first day of the year 2020 as days since the epoch. It was a Wednesday.
+  private static final long DAY_2020_01_01 = 18262;
+  private static final long MINUTES_PER_DAY = EpochRange.MINUTES_PER_DAY;
+
+  private static final String[] WEEKDAYS = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+  @Test
+  public void dailyWithInterval() {
+    RecurringEvent event = standUp(DAY_2020_01_01, "FREQ=DAILY;INTERVAL=2;COUNT=3");
+
+    List<EpochRange> actual = event.getOccurrences(EpochRange.ofDays(DAY_2020_01_01, 30));
+    List<EpochRange> expected = Arrays.asList(
+        nineAm(DAY_2020_01_01), nineAm(DAY_2020_01_01 + 2), nineAm(DAY_2020_01_01 + 4));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void weeklyOnSeveralDaysStartingMidWeek() {
+    // Monday 2019-12-30 is in the first week but before the first occurrence, so it is skipped and
+    // doesn't count.
+    RecurringEvent event = standUp(DAY_2020_01_01, "FREQ=WEEKLY;BYDAY=MO,WE,FR;COUNT=4");
+
+    List<EpochRange> actual = event.getOccurrences(EpochRange.ofDays(DAY_2020_01_01 - 7, 30));
+    List<EpochRange> expected = Arrays.asList(nineAm(DAY_2020_01_01), nineAm(DAY_2020_01_01 + 2),
+        nineAm(DAY_2020_01_01 + 5), nineAm(DAY_2020_01_01 + 7));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void everyOtherWeek() {
+    long thursday = DAY_2020_01_01 + 1;
+    RecurringEvent event = standUp(thursday, "FREQ=WEEKLY;INTERVAL=2;BYDAY=TU,TH");
+
+    List<EpochRange> actual = event.getOccurrences(EpochRange.ofDays(DAY_2020_01_01, 30));
+    List<EpochRange> expected = Arrays.asList(nineAm(thursday), nineAm(thursday + 12),
+        nineAm(thursday + 14), nineAm(thursday + 26), nineAm(thursday + 28));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void dailyOnWeekdays() {
+    RecurringEvent event = standUp(DAY_2020_01_01, "FREQ=DAILY;BYDAY=MO,TU,WE,TH,FR");
+
+    List<EpochRange> actual = event.getOccurrences(EpochRange.ofDays(DAY_2020_01_01, 7));
+    List<EpochRange> expected = Arrays.asList(nineAm(DAY_2020_01_01), nineAm(DAY_2020_01_01 + 1),
+        nineAm(DAY_2020_01_01 + 2), nineAm(DAY_2020_01_01 + 5), nineAm(DAY_2020_01_01 + 6));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void untilIsInclusive() {
+    RecurringEvent event = standUp(DAY_2020_01_01, "FREQ=DAILY;UNTIL=20200103");
+
+    List<EpochRange> actual = event.getOccurrences(EpochRange.ofDays(DAY_2020_01_01, 30));
+    List<EpochRange> expected = Arrays.asList(
+        nineAm(DAY_2020_01_01), nineAm(DAY_2020_01_01 + 1), nineAm(DAY_2020_01_01 + 2));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void occurrenceFromBeforeWindowOverlapsIt() {
+    // Every occurrence runs from 11PM to 1AM, so the window holds the end of yesterday's.
+    RecurringEvent event = new RecurringEvent("Night shift",
+        EpochRange.fromStartDuration(DAY_2020_01_01 * MINUTES_PER_DAY + TIME_1100PM,
+            DURATION_2_HOUR), Arrays.asList(PERSON_A), RecurrenceRule.parse("FREQ=DAILY"));
+
+    long day = DAY_2020_01_01 + 1000;
+    List<EpochRange> actual = event.getOccurrences(EpochRange.ofDays(day, 1));
+    List<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartDuration((day - 1) * MINUTES_PER_DAY + TIME_1100PM, DURATION_2_HOUR),
+        EpochRange.fromStartDuration(day * MINUTES_PER_DAY + TIME_1100PM, DURATION_2_HOUR));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void cursorClipsOccurrencesToWindow() {
+    RecurringEvent event = new RecurringEvent("Night shift",
+        EpochRange.fromStartDuration(DAY_2020_01_01 * MINUTES_PER_DAY + TIME_1100PM,
+            DURATION_2_HOUR), Arrays.asList(PERSON_A), RecurrenceRule.parse("FREQ=DAILY"));
+
+    RecurringEvent.Occurrences occurrences =
+        event.occurrencesIn(EpochRange.ofDays(DAY_2020_01_01 + 1, 1));
+
+    Assert.assertTrue(occurrences.advance());
+    Assert.assertEquals(0, occurrences.start());
+    Assert.assertEquals(DURATION_2_HOUR / 2, occurrences.end());
+    Assert.assertTrue(occurrences.advance());
+    Assert.assertEquals(TIME_1100PM, occurrences.start());
+    Assert.assertEquals(MINUTES_PER_DAY, occurrences.end());
+    Assert.assertFalse(occurrences.advance());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void firstOccurrenceMustMatchWeekdays() {
+    standUp(DAY_2020_01_01, "FREQ=WEEKLY;BYDAY=MO");
+  }
+
+  @Test
+  public void matchesDayByDayExpansion() {
+    RandomizedDifferential.check(/* seed= */ 5545, /* trials= */ 500,
+        RecurringEventTest::randomWindow,
+        window -> expandDayByDay(window.event.getFirst(), window.event.getRule(), window.range),
+        window -> window.event.getOccurrences(window.range));
+  }
+
+  private static RecurringEvent standUp(long epochDay, String rule) {
+    return new RecurringEvent("Stand-up", nineAm(epochDay), Arrays.asList(PERSON_A),
+        RecurrenceRule.parse(rule));
+  }
+
+  private static EpochRange nineAm(long epochDay) {
+    return EpochRange.fromStartDuration(epochDay * MINUTES_PER_DAY + TIME_0900AM,
+        DURATION_30_MINUTES);
+  }
+
+  /**
+   * Draws a recurring event that starts in the first two weeks of 2020, and a window of up to 30
+   * days to list its occurrences in.
+   */
+  private static Window randomWindow(Random random) {
+    long firstDay = DAY_2020_01_01 + random.nextInt(14);
+    RecurrenceRule rule = RecurrenceRule.parse(randomRule(random, firstDay));
+    EpochRange first = EpochRange.fromStartDuration(
+        firstDay * MINUTES_PER_DAY + random.nextInt((int) MINUTES_PER_DAY),
+        random.nextInt(3 * (int) MINUTES_PER_DAY));
+
+    EpochRange range = EpochRange.fromStartDuration(
+        (DAY_2020_01_01 - 7) * MINUTES_PER_DAY + random.nextInt(90 * (int) MINUTES_PER_DAY),
+        random.nextInt(30 * (int) MINUTES_PER_DAY));
+
+    return new Window(new RecurringEvent("Event", first, Arrays.asList(PERSON_A), rule), range);
+  }
+
+  private static String randomRule(Random random, long firstDay) {
+    StringBuilder rule = new StringBuilder(random.nextBoolean() ? "FREQ=DAILY" : "FREQ=WEEKLY");
+    rule.append(";INTERVAL=").append(1 + random.nextInt(3));
+
+    if (random.nextBoolean()) {
+      List<String> weekdays = new ArrayList<>();
+      for (int weekday = 0; weekday < 7; weekday++) {
+        if (weekday == RecurrenceRule.weekdayOf(firstDay) || random.nextBoolean()) {
+          weekdays.add(WEEKDAYS[weekday]);
+        }
+      }
+      rule.append(";BYDAY=").append(String.join(",", weekdays));
+    }
+
+    switch (random.nextInt(3)) {
+      case 0:
+        rule.append(";COUNT=").append(1 + random.nextInt(20));
+        break;
+      case 1:
+        rule.append(";UNTIL=").append(LocalDate.ofEpochDay(firstDay + random.nextInt(60))
+            .format(DateTimeFormatter.BASIC_ISO_DATE));
+        break;
+      default:
+        break;
+    }
+
+    return rule.toString();
+  }
+
+  /**
+   * Expands {@code rule} by testing every day from the first occurrence onward, and returns the
+   * occurrences that overlap {@code window}.
+   */
+  private static List<EpochRange> expandDayByDay(
+      EpochRange first, RecurrenceRule rule, EpochRange window) {
+    long firstDay = Math.floorDiv(first.start(), MINUTES_PER_DAY);
+    long timeOfDay = first.start() - firstDay * MINUTES_PER_DAY;
+    int firstWeekday = RecurrenceRule.weekdayOf(firstDay);
+    long firstMonday = firstDay - firstWeekday;
+
+    List<EpochRange> occurrences = new ArrayList<>();
+    int count = 0;
+
+    for (long day = firstDay; day * MINUTES_PER_DAY + timeOfDay < window.end(); day++) {
+      int weekday = RecurrenceRule.weekdayOf(day);
+      boolean matches;
+
+      if (rule.getFrequency() == RecurrenceRule.Frequency.DAILY) {
+        matches = (day - firstDay) % rule.getInterval() == 0
+            && (!rule.hasWeekdays() || rule.isOnWeekday(weekday));
+      } else {
+        matches = ((day - firstMonday) / 7) % rule.getInterval() == 0
+            && (rule.hasWeekdays() ? rule.isOnWeekday(weekday) : weekday == firstWeekday);
+      }
+
+      if (!matches) {
+        continue;
+      }
+
+      if (count++ >= rule.getCount() || day > rule.getUntilEpochDay()) {
+        break;
+      }
+
+      EpochRange occurrence =
+          EpochRange.fromStartDuration(day * MINUTES_PER_DAY + timeOfDay, first.duration());
+      if (occurrence.overlaps(window)) {
+        occurrences.add(occurrence);
+      }
+    }
+
+    return occurrences;
+  }
+
+  /** A recurring event and the range to list its occurrences in. */
+  private static final class Window {
+    final RecurringEvent event;
+    final EpochRange range;
+
+    Window(RecurringEvent event, EpochRange range) {
+      this.event = event;
+      this.range = range;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RoomDirectoryTest {
+  private static final Room SMALL = new Room("Small", 4, Collections.emptyList());
+  private static final Room MEDIUM = new Room("Medium", 8, Arrays.asList("projector"));
+  private static final Room MEDIUM_TOO = new Room("Medium too", 8, Collections.emptyList());
+  private static final Room LARGE =
+      new Room("Large", 20, Arrays.asList("projector", "video call"));
+
+  private final RoomDirectory directory =
+      new RoomDirectory(Arrays.asList(LARGE, MEDIUM, SMALL, MEDIUM_TOO));
+
+  @Test
+  public void anyRoomMatchesNoRequirements() {
+    Assert.assertEquals(4, directory.getMatchingRooms(0, Collections.emptyList()).size());
+  }
+
+  @Test
+  public void capacityIsInclusive() {
+    List<Room> actual = directory.getMatchingRooms(8, Collections.emptyList());
+
+    Assert.assertEquals(3, actual.size());
+    Assert.assertFalse(actual.contains(SMALL));
+    Assert.assertEquals(LARGE, actual.get(2));
+  }
+
+  @Test
+  public void everyResourceIsRequired() {
+    Assert.assertEquals(Arrays.asList(MEDIUM, LARGE),
+        directory.getMatchingRooms(0, Arrays.asList("projector")));
+    Assert.assertEquals(Arrays.asList(LARGE),
+        directory.getMatchingRooms(0, Arrays.asList("projector", "video call")));
+  }
+
+  @Test
+  public void noRoomIsLargeEnough() {
+    Assert.assertTrue(directory.getMatchingRooms(21, Collections.emptyList()).isEmpty());
+  }
+}
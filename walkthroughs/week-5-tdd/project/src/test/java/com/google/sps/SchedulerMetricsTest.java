@@ -0,0 +1,121 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class SchedulerMetricsTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+
+  private static final int DURATION_15_MINUTES = 15;
+  private static final int DURATION_30_MINUTES = 30;
+
+  // The first day of the year 2020 as days since the epoch.
+  private static final long DAY_2020_01_01 = 18262;
+
+  @Test
+  public void metricsRecordEveryPhase() {
+    SchedulerMetrics metrics = new SchedulerMetrics();
+    FindMeetingQuery meteredQuery = new FindMeetingQuery(
+        FindMeetingQuery.Algorithm.SORT_AND_MERGE, /* cache= */ null, /* pool= */ null, metrics);
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    Assert.assertEquals(new FindMeetingQuery().query(events, request),
+        meteredQuery.query(events, request));
+
+    Assert.assertEquals(1, metrics.getPhaseNanos(SchedulerMetrics.Phase.QUERY).getCount());
+    Assert.assertEquals(1, metrics.getPhaseNanos(SchedulerMetrics.Phase.INTERSECT).getCount());
+    for (SchedulerMetrics.Phase phase : Arrays.asList(SchedulerMetrics.Phase.FILTER,
+        SchedulerMetrics.Phase.SORT, SchedulerMetrics.Phase.MERGE,
+        SchedulerMetrics.Phase.COMPLEMENT)) {
+      Assert.assertEquals(2, metrics.getPhaseNanos(phase).getCount());
+    }
+    Assert.assertEquals(1, metrics.getSizes(SchedulerMetrics.Size.BUSY_INTERVALS).getMax());
+  }
+
+  @Test
+  public void metricsRecordEveryEntryPoint() {
+    SchedulerMetrics metrics = new SchedulerMetrics();
+    FindMeetingQuery meteredQuery = new FindMeetingQuery(
+        FindMeetingQuery.Algorithm.SORT_AND_MERGE, /* cache= */ null, /* pool= */ null, metrics);
+    List<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A)));
+    EventIndex index = new EventIndex(events);
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    Collection<CompactEvent> compactEvents = dictionary.compact(events);
+    List<EpochEvent> epochEvents =
+        Arrays.asList(EpochEvent.fromEvent(DAY_2020_01_01, events.get(0)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    meteredQuery.query(events, request);
+    meteredQuery.query(compactEvents, dictionary, request);
+    meteredQuery.query(index, request);
+    meteredQuery.query(epochEvents, request, EpochRange.ofDays(DAY_2020_01_01, /* days= */ 1));
+    meteredQuery.queryMaximizingOptionalAttendees(events, request);
+    meteredQuery.queryMaximizingOptionalAttendees(index, request);
+    meteredQuery.queryQuorum(events, Arrays.asList(PERSON_A, PERSON_B), 1, DURATION_30_MINUTES);
+    meteredQuery.queryQuorum(index, Arrays.asList(PERSON_A, PERSON_B), 1, DURATION_30_MINUTES);
+    meteredQuery.queryBest(events, request, 3, DURATION_15_MINUTES, SlotScorer.earliestStart());
+    meteredQuery.queryBest(index, request, 3, DURATION_15_MINUTES, SlotScorer.earliestStart());
+
+    Assert.assertEquals(10, metrics.getPhaseNanos(SchedulerMetrics.Phase.QUERY).getCount());
+    Assert.assertEquals(6, metrics.getPhaseNanos(SchedulerMetrics.Phase.SWEEP).getCount());
+    Assert.assertEquals(2, metrics.getPhaseNanos(SchedulerMetrics.Phase.RANK).getCount());
+    // The plain, compact and multi-day queries each filter events for both groups of attendees.
+    Assert.assertEquals(6, metrics.getPhaseNanos(SchedulerMetrics.Phase.SORT).getCount());
+  }
+
+  @Test
+  public void parallelQueriesRecordMetrics() {
+    Random random = new Random(25);
+    List<String> people = CalendarGenerator.people(4000);
+    List<Event> events = CalendarGenerator.events(random, people, 10);
+    MeetingRequest request = CalendarGenerator.request(random, people, 10, 0, 30);
+
+    SchedulerMetrics metrics = new SchedulerMetrics();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      new FindMeetingQuery(FindMeetingQuery.Algorithm.SORT_AND_MERGE, /* cache= */ null, pool,
+          metrics).query(events, request);
+    } finally {
+      pool.shutdown();
+    }
+
+    // The mandatory and the optional attendees are both queried on the pool.
+    Assert.assertEquals(2, metrics.getPhaseNanos(SchedulerMetrics.Phase.MERGE).getCount());
+    Assert.assertEquals(2, metrics.getPhaseNanos(SchedulerMetrics.Phase.COMPLEMENT).getCount());
+    Assert.assertEquals(2, metrics.getSizes(SchedulerMetrics.Size.BUSY_INTERVALS).getCount());
+    Assert.assertEquals(2, metrics.getSizes(SchedulerMetrics.Size.FREE_INTERVALS).getCount());
+  }
+}
@@ -0,0 +1,59 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.Event;
+import com.google.sps.IntervalTree;
+import com.google.sps.TimeRange;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class ConflictCheckServletTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  private static final int DURATION_60_MINUTES = 60;
+
+  @Test
+  public void sharedEventsAreReportedOnceInStartOrder() {
+    Event late = new Event("Late", TimeRange.fromStartDuration(TIME_1000AM, DURATION_60_MINUTES),
+        Arrays.asList(PERSON_A));
+    Event shared = new Event("Shared",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES),
+        Arrays.asList(PERSON_A, PERSON_B));
+    Event other = new Event("Other",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES), Arrays.asList(PERSON_C));
+    Map<String, IntervalTree<Event>> eventsByAttendee =
+        ConflictCheckServlet.indexByAttendee(Arrays.asList(late, shared, other));
+
+    List<Event> actual = ConflictCheckServlet.findConflicts(eventsByAttendee,
+        Arrays.asList(PERSON_B, PERSON_A),
+        TimeRange.fromStartEnd(TIME_0900AM, TIME_1100AM, /* inclusive= */ false));
+
+    Assert.assertEquals(Arrays.asList(shared, late), actual);
+  }
+}
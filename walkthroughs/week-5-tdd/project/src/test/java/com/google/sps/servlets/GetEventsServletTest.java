@@ -0,0 +1,77 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.CalendarSnapshot;
+import com.google.sps.Event;
+import com.google.sps.Events;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class GetEventsServletTest {
+  private static final String ETAG = "\"abc123\"";
+
+  @Test
+  public void acceptsGzip() {
+    Assert.assertTrue(GetEventsServlet.acceptsGzip("gzip, deflate, br"));
+    Assert.assertTrue(GetEventsServlet.acceptsGzip("deflate;q=1.0, GZIP;q=0.5"));
+    Assert.assertTrue(GetEventsServlet.acceptsGzip("*"));
+    Assert.assertTrue(GetEventsServlet.acceptsGzip("*;q=0, gzip"));
+  }
+
+  @Test
+  public void rejectsGzip() {
+    Assert.assertFalse(GetEventsServlet.acceptsGzip(null));
+    Assert.assertFalse(GetEventsServlet.acceptsGzip("deflate, br"));
+    Assert.assertFalse(GetEventsServlet.acceptsGzip("gzip;q=0"));
+    Assert.assertFalse(GetEventsServlet.acceptsGzip("*;q=0.5, gzip;q=0"));
+    Assert.assertFalse(GetEventsServlet.acceptsGzip("gzip;q=0, *"));
+  }
+
+  @Test
+  public void snapshotIsSerializedLikeItsEvents() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CalendarSnapshot.write(Arrays.asList(Events.events), bytes);
+    CalendarSnapshot snapshot = CalendarSnapshot.wrap(ByteBuffer.wrap(bytes.toByteArray()));
+
+    Event[] actual = SchedulerGson.GSON.fromJson(GetEventsServlet.toJson(snapshot), Event[].class);
+
+    Assert.assertEquals(new HashSet<>(Arrays.asList(Events.events)),
+        new HashSet<>(Arrays.asList(actual)));
+  }
+
+  @Test
+  public void matchesETag() {
+    Assert.assertTrue(GetEventsServlet.matchesETag(ETAG, ETAG));
+    Assert.assertTrue(GetEventsServlet.matchesETag("\"other\", " + ETAG, ETAG));
+    Assert.assertTrue(GetEventsServlet.matchesETag("W/" + ETAG, ETAG));
+    Assert.assertTrue(GetEventsServlet.matchesETag("*", ETAG));
+  }
+
+  @Test
+  public void doesNotMatchETag() {
+    Assert.assertFalse(GetEventsServlet.matchesETag(null, ETAG));
+    Assert.assertFalse(GetEventsServlet.matchesETag("\"abc123-gzip\"", ETAG));
+  }
+}
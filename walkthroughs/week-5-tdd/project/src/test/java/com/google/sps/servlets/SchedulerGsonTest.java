@@ -0,0 +1,102 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class SchedulerGsonTest {
+  @Test
+  public void readsMeetingRequest() {
+    String json = "{\"duration\": 30, \"attendees\": [\"A\", \"B\"], "
+        + "\"optional_attendees\": [\"B\", \"C\"], \"ignored\": {\"x\": [1]}}";
+
+    MeetingRequest request = SchedulerGson.GSON.fromJson(json, MeetingRequest.class);
+
+    Assert.assertEquals(30, request.getDuration());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("A", "B")),
+        new HashSet<>(request.getAttendees()));
+    // B is mandatory, so it can't also be optional.
+    Assert.assertEquals(new HashSet<>(Arrays.asList("C")),
+        new HashSet<>(request.getOptionalAttendees()));
+  }
+
+  @Test
+  public void missingOptionalAttendeesAreEmpty() {
+    // This is the shape that the page's script sends.
+    String json = "{\"duration\": 60, \"attendees\": [\"A\"]}";
+
+    MeetingRequest request = SchedulerGson.GSON.fromJson(json, MeetingRequest.class);
+
+    Assert.assertTrue(request.getOptionalAttendees().isEmpty());
+  }
+
+  @Test
+  public void roomRequirementsRoundTrip() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList("A"), 30);
+    request.requireRoom(8);
+    request.addRequiredResource("projector");
+
+    MeetingRequest copy = SchedulerGson.GSON.fromJson(
+        SchedulerGson.GSON.toJson(request, MeetingRequest.class), MeetingRequest.class);
+
+    Assert.assertTrue(copy.isRoomRequired());
+    Assert.assertEquals(8, copy.getRoomCapacity());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("projector")),
+        new HashSet<>(copy.getRequiredResources()));
+  }
+
+  @Test
+  public void requiredResourcesAloneRequireARoom() {
+    String json = "{\"duration\": 30, \"attendees\": [\"A\"], "
+        + "\"required_resources\": [\"projector\"]}";
+
+    MeetingRequest request = SchedulerGson.GSON.fromJson(json, MeetingRequest.class);
+
+    Assert.assertTrue(request.isRoomRequired());
+    Assert.assertEquals(0, request.getRoomCapacity());
+  }
+
+  @Test
+  public void missingRoomFieldsNeedNoRoom() {
+    MeetingRequest request = SchedulerGson.GSON.fromJson(
+        SchedulerGson.GSON.toJson(new MeetingRequest(Arrays.asList("A"), 30), MeetingRequest.class),
+        MeetingRequest.class);
+
+    Assert.assertFalse(request.isRoomRequired());
+  }
+
+  @Test
+  public void writesTimeRangesInPageFormat() {
+    Collection<TimeRange> ranges =
+        Arrays.asList(TimeRange.fromStartDuration(0, 30), TimeRange.fromStartDuration(90, 60));
+    StringWriter writer = new StringWriter();
+
+    SchedulerGson.GSON.toJson(ranges, SchedulerGson.TIME_RANGES_TYPE, writer);
+
+    Assert.assertEquals(
+        "[{\"start\":0,\"duration\":30},{\"start\":90,\"duration\":60}]", writer.toString());
+  }
+}